@@ -3,9 +3,11 @@ package com.indhive;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SuppressWarnings("unused")
 @SpringBootApplication
+@EnableScheduling
 public class IndhiveApplication {
     public static void main(String[] args) {
         SpringApplication.run(IndhiveApplication.class, args);
@@ -0,0 +1,59 @@
+package com.indhive.config;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.AppenderBase;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+/**
+ * HikariCP solo informa de las fugas de conexiones con un WARN de ProxyLeakTask.
+ * Este componente escucha ese logger y publica cada aviso en el contador hikaricp.connections.leaks.
+ */
+@Component
+public class ConnectionLeakMetrics {
+
+    static final String LEAK_LOGGER = "com.zaxxer.hikari.pool.ProxyLeakTask";
+
+    private final Counter leaks;
+    private final AppenderBase<ILoggingEvent> appender = new AppenderBase<>() {
+        @Override
+        protected void append(ILoggingEvent event) {
+            // Los INFO de ProxyLeakTask indican que la conexión se devolvió después del aviso
+            if (event.getLevel().isGreaterOrEqual(Level.WARN)) {
+                leaks.increment();
+            }
+        }
+    };
+
+    public ConnectionLeakMetrics(MeterRegistry registry) {
+        this.leaks = Counter.builder("hikaricp.connections.leaks")
+                .description("Conexiones retenidas más allá de leak-detection-threshold")
+                .register(registry);
+    }
+
+    @PostConstruct
+    public void init() {
+        appender.setName("connection-leak-metrics");
+        appender.start();
+        leakLogger().addAppender(appender);
+    }
+
+    @PreDestroy
+    public void destroy() {
+        leakLogger().detachAppender(appender);
+        appender.stop();
+    }
+
+    private Logger leakLogger() {
+        return (Logger) LoggerFactory.getLogger(LEAK_LOGGER);
+    }
+}
@@ -3,6 +3,8 @@ package com.indhive.config;
 import com.indhive.model.User;
 import com.indhive.repository.UserRepository;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -11,6 +13,8 @@ import org.springframework.security.crypto.password.PasswordEncoder;
 @Configuration
 public class DataInitializer {
 
+    private static final Logger logger = LoggerFactory.getLogger(DataInitializer.class);
+
     @Bean
     public CommandLineRunner initUsers(UserRepository userRepository, PasswordEncoder passwordEncoder) {
         return args -> {
@@ -23,9 +27,9 @@ public class DataInitializer {
                 admin.setEmail("admin@indhive.com");
                 admin.setRoles("ROLE_ADMIN");
                 userRepository.save(admin);
-                System.out.println("Usuario admin creado automáticamente.");
+                logger.info("Usuario admin creado automáticamente.");
             } else {
-                System.out.println("Usuario admin ya existe.");
+                logger.debug("Usuario admin ya existe.");
             }
         };
     }
@@ -0,0 +1,73 @@
+package com.indhive.config;
+
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import com.indhive.model.Project;
+import com.indhive.model.ProjectCollaborator;
+import com.indhive.model.User;
+
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.hibernate.cache.spi.RegionFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import java.net.URI;
+import java.time.Duration;
+import java.util.List;
+import java.util.OptionalLong;
+import java.util.UUID;
+
+/**
+ * Regiones de la caché de segundo nivel de Hibernate (JCache sobre Caffeine), creadas al arrancar
+ * con su límite de entradas. Hibernate las recibe ya creadas y no puede crear otras
+ * (missing_cache_strategy=fail), así que ninguna región queda sin límite por olvidarla aquí.
+ */
+@Configuration
+public class HibernateCacheConfig {
+
+    // Entidades con @Cache; la región de una entidad es su nombre completo y la de una colección, entidad.atributo
+    static final List<String> ENTITY_REGIONS = List.of(
+            User.class.getName(), Project.class.getName(), ProjectCollaborator.class.getName());
+    static final String PROJECT_COLLABORATORS_REGION = Project.class.getName() + ".collaborators";
+
+    @Bean(destroyMethod = "close")
+    public CacheManager hibernateCacheManager(@Value("${cache.second-level.entity-max-entries:10000}") long entityMaxEntries,
+                                              @Value("${cache.second-level.collection-max-entries:10000}") long collectionMaxEntries,
+                                              @Value("${cache.second-level.query-max-entries:1000}") long queryMaxEntries,
+                                              @Value("${cache.second-level.time-to-live:10m}") Duration timeToLive) {
+        // JCache comparte un CacheManager por URI: cada contexto (p. ej. los de los tests) necesita el suyo
+        CacheManager cacheManager = Caching.getCachingProvider(CaffeineCachingProvider.class.getName())
+                .getCacheManager(URI.create("indhive:hibernate:" + UUID.randomUUID()), HibernateCacheConfig.class.getClassLoader());
+
+        ENTITY_REGIONS.forEach(region -> cacheManager.createCache(region, acotada(entityMaxEntries, timeToLive)));
+        cacheManager.createCache(PROJECT_COLLABORATORS_REGION, acotada(collectionMaxEntries, timeToLive));
+        cacheManager.createCache(RegionFactory.DEFAULT_QUERY_RESULTS_REGION_UNQUALIFIED_NAME,
+                acotada(queryMaxEntries, timeToLive));
+        // Una entrada por tabla y sin caducidad: si se perdiera, los resultados de consultas anteriores a la
+        // última escritura en esa tabla se darían por válidos
+        cacheManager.createCache(RegionFactory.DEFAULT_UPDATE_TIMESTAMPS_REGION_UNQUALIFIED_NAME,
+                new CaffeineConfiguration<>().setStoreByValue(false));
+        return cacheManager;
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer hibernateCacheManagerCustomizer(CacheManager hibernateCacheManager) {
+        return properties -> {
+            properties.put(ConfigSettings.CACHE_MANAGER, hibernateCacheManager);
+            // Una región sin declarar aquí es un error al arrancar, no una caché sin límite
+            properties.put(ConfigSettings.MISSING_CACHE_STRATEGY, "fail");
+        };
+    }
+
+    // Por referencia: Hibernate ya guarda el estado desensamblado e inmutable, copiarlo en cada acceso no aporta nada
+    private static CaffeineConfiguration<Object, Object> acotada(long maxEntries, Duration timeToLive) {
+        return new CaffeineConfiguration<>()
+                .setStoreByValue(false)
+                .setMaximumSize(OptionalLong.of(maxEntries))
+                .setExpireAfterWrite(OptionalLong.of(timeToLive.toNanos()));
+    }
+}
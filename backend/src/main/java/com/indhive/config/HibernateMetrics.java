@@ -0,0 +1,129 @@
+package com.indhive.config;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+import jakarta.persistence.EntityManagerFactory;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Publica las estadísticas de Hibernate (hibernate.generate_statistics) como métricas hibernate.*.
+ * El módulo hibernate-micrometer no se publica para la versión de Hibernate que trae Spring Boot,
+ * así que se registran aquí los contadores que interesan para ajustar el acceso a datos.
+ */
+@Component
+public class HibernateMetrics implements MeterBinder {
+
+    private final Statistics statistics;
+
+    public HibernateMetrics(EntityManagerFactory entityManagerFactory) {
+        this.statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        counter(registry, "hibernate.sessions.open", "Sesiones abiertas", Statistics::getSessionOpenCount);
+        counter(registry, "hibernate.transactions", "Transacciones completadas", Statistics::getTransactionCount);
+        counter(registry, "hibernate.statements", "Sentencias JDBC preparadas", Statistics::getPrepareStatementCount);
+        counter(registry, "hibernate.flushes", "Flushes del contexto de persistencia", Statistics::getFlushCount);
+        counter(registry, "hibernate.optimistic.failures", "Conflictos de bloqueo optimista", Statistics::getOptimisticFailureCount);
+
+        counter(registry, "hibernate.query.executions", "Consultas HQL/SQL ejecutadas", Statistics::getQueryExecutionCount);
+        TimeGauge.builder("hibernate.query.executions.max", statistics, TimeUnit.MILLISECONDS,
+                        Statistics::getQueryExecutionMaxTime)
+                .description("Consulta más lenta desde el arranque")
+                .register(registry);
+
+        entity(registry, "load", Statistics::getEntityLoadCount);
+        entity(registry, "fetch", Statistics::getEntityFetchCount);
+        entity(registry, "insert", Statistics::getEntityInsertCount);
+        entity(registry, "update", Statistics::getEntityUpdateCount);
+        entity(registry, "delete", Statistics::getEntityDeleteCount);
+        counter(registry, "hibernate.collections.fetch", "Colecciones cargadas con una consulta aparte",
+                Statistics::getCollectionFetchCount);
+
+        cache(registry, "hit", Statistics::getSecondLevelCacheHitCount);
+        cache(registry, "miss", Statistics::getSecondLevelCacheMissCount);
+        cache(registry, "put", Statistics::getSecondLevelCachePutCount);
+        for (String region : statistics.getSecondLevelCacheRegionNames()) {
+            if (statistics.getCacheRegionStatistics(region) != null) {
+                region(registry, region);
+            }
+        }
+        queryCache(registry, "hit", Statistics::getQueryCacheHitCount);
+        queryCache(registry, "miss", Statistics::getQueryCacheMissCount);
+        queryCache(registry, "put", Statistics::getQueryCachePutCount);
+
+        counter(registry, "hibernate.connections.obtained", "Conexiones JDBC solicitadas al pool",
+                Statistics::getConnectCount);
+    }
+
+    private void counter(MeterRegistry registry, String name, String description, ToDoubleFunction<Statistics> value) {
+        FunctionCounter.builder(name, statistics, value)
+                .description(description)
+                .register(registry);
+    }
+
+    // Las cargas ("fetch") que crecen con las peticiones delatan consultas N+1
+    private void entity(MeterRegistry registry, String operation, ToDoubleFunction<Statistics> value) {
+        FunctionCounter.builder("hibernate.entities", statistics, value)
+                .tag("operation", operation)
+                .description("Operaciones sobre entidades")
+                .register(registry);
+    }
+
+    private void cache(MeterRegistry registry, String result, ToDoubleFunction<Statistics> value) {
+        FunctionCounter.builder("hibernate.second.level.cache.requests", statistics, value)
+                .tag("result", result)
+                .description("Accesos a la caché de segundo nivel")
+                .register(registry);
+    }
+
+    // Las estadísticas de cada región se consultan en cada lectura: Statistics.clear() las sustituye
+    private void region(MeterRegistry registry, String region) {
+        regionCounter(registry, region, "hit", CacheRegionStatistics::getHitCount);
+        regionCounter(registry, region, "miss", CacheRegionStatistics::getMissCount);
+        regionCounter(registry, region, "put", CacheRegionStatistics::getPutCount);
+        Gauge.builder("hibernate.cache.region.hit.ratio", statistics, s -> hitRatio(s.getCacheRegionStatistics(region)))
+                .tag("region", region)
+                .description("Aciertos sobre accesos (aciertos y fallos) de la región desde el arranque")
+                .register(registry);
+    }
+
+    private void regionCounter(MeterRegistry registry, String region, String result,
+                               ToDoubleFunction<CacheRegionStatistics> value) {
+        FunctionCounter.builder("hibernate.cache.region.requests", statistics, s -> {
+                    CacheRegionStatistics stats = s.getCacheRegionStatistics(region);
+                    return stats == null ? 0 : value.applyAsDouble(stats);
+                })
+                .tag("region", region)
+                .tag("result", result)
+                .description("Accesos a una región de la caché de segundo nivel")
+                .register(registry);
+    }
+
+    private static double hitRatio(CacheRegionStatistics stats) {
+        if (stats == null) {
+            return Double.NaN;
+        }
+        long accesos = stats.getHitCount() + stats.getMissCount();
+        return accesos == 0 ? Double.NaN : (double) stats.getHitCount() / accesos;
+    }
+
+    private void queryCache(MeterRegistry registry, String result, ToDoubleFunction<Statistics> value) {
+        FunctionCounter.builder("hibernate.query.cache.requests", statistics, value)
+                .tag("result", result)
+                .description("Accesos a la caché de consultas")
+                .register(registry);
+    }
+}
@@ -1,15 +1,38 @@
 package com.indhive.controller;
 
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.indhive.security.CustomUserDetailsService;
+
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.Map;
+
 @RestController
 @RequestMapping("/api/admin")
 public class AdminController {
 
+    private final CustomUserDetailsService userDetailsService;
+
+    public AdminController(CustomUserDetailsService userDetailsService) {
+        this.userDetailsService = userDetailsService;
+    }
+
     @GetMapping("/only")
     @PreAuthorize("hasRole('SUPERADMIN')")
     public String onlyForSuperadmins() {
         return "🔐 Acceso concedido SOLO a SUPERADMIN";
     }
+
+    @GetMapping("/cache/user-details")
+    @PreAuthorize("hasRole('ADMIN')")
+    public Map<String, Object> userDetailsCacheStats() {
+        CacheStats stats = userDetailsService.getCacheStats();
+        return Map.of(
+                "size", userDetailsService.getCacheSize(),
+                "hits", stats.hitCount(),
+                "misses", stats.missCount(),
+                "evictions", stats.evictionCount(),
+                "hitRate", stats.hitRate());
+    }
 }
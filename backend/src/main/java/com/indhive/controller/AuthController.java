@@ -4,13 +4,15 @@ import com.indhive.dto.EmailDTO;
 import com.indhive.dto.LoginRequest;
 import com.indhive.dto.ResetPasswordDTO;
 import com.indhive.dto.UserDTO;
-import com.indhive.model.RevokedToken;
 import com.indhive.model.User;
-import com.indhive.repository.RevokedTokenRepository;
 import com.indhive.repository.UserRepository;
+import com.indhive.security.CustomUserDetailsService;
 import com.indhive.security.JwtUtils;
 import com.indhive.security.LoginAttemptService;
-import com.indhive.service.EmailService;
+import com.indhive.security.PasswordHashingUnavailableException;
+import com.indhive.security.Roles;
+import com.indhive.security.TokenRevocationService;
+import com.indhive.service.MailOutboxService;
 
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
@@ -25,7 +27,6 @@ import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.*;
-import java.util.stream.Collectors;
 
 @RestController
 @RequestMapping("/api/auth")
@@ -36,9 +37,10 @@ public class AuthController {
     @Autowired private PasswordEncoder passwordEncoder;
     @Autowired private AuthenticationManager authenticationManager;
     @Autowired private JwtUtils jwtUtils;
-    @Autowired private RevokedTokenRepository revokedTokenRepository;
+    @Autowired private TokenRevocationService tokenRevocationService;
     @Autowired private LoginAttemptService loginAttemptService;
-    @Autowired private EmailService emailService;
+    @Autowired private MailOutboxService mailOutboxService;
+    @Autowired private CustomUserDetailsService userDetailsService;
 
     @PostMapping("/register")
     public ResponseEntity<?> register(@RequestBody @Valid User user) {
@@ -65,13 +67,16 @@ public class AuthController {
     public ResponseEntity<?> recoverPassword(@RequestBody EmailDTO emailDTO) {
         Optional<User> userOpt = userRepository.findByEmail(emailDTO.getEmail());
         if (userOpt.isPresent()) {
-            String token = jwtUtils.generateJwtToken(userOpt.get().getEmail(), normalizeRoles(userOpt.get().getRoles()));
+            String token = jwtUtils.generateJwtToken(userOpt.get().getEmail(), normalizeRoles(userOpt.get().getRoles()),
+                userOpt.get().getTokenVersion());
             String recoveryUrl = "http://localhost:3000/reset-password?token=" + token;
 
-            emailService.sendSimpleMessage(
+            // Solo se encola: la respuesta no espera al servidor SMTP
+            mailOutboxService.encolar(
                 emailDTO.getEmail(),
                 "Recuperación de contraseña - Indhive",
-                "Haz clic en este enlace para restablecer tu contraseña:\n\n" + recoveryUrl
+                "Haz clic en este enlace para restablecer tu contraseña:\n\n" + recoveryUrl,
+                "recover:" + emailDTO.getEmail().toLowerCase()
             );
         }
 
@@ -90,23 +95,25 @@ public class AuthController {
             User user = userOpt.get();
             user.setPassword(passwordEncoder.encode(dto.getPassword()));
             userRepository.save(user);
+            userDetailsService.evict(email);
 
-            if (!revokedTokenRepository.existsById(dto.getToken())) {
-                revokedTokenRepository.save(new RevokedToken(dto.getToken(), new Date()));
-            }
+            tokenRevocationService.revoke(dto.getToken());
 
             return ResponseEntity.ok(Map.of("message", "Contraseña actualizada correctamente"));
+        } catch (PasswordHashingUnavailableException e) {
+            throw e;
         } catch (Exception e) {
             return ResponseEntity.status(400).body("Token inválido o expirado");
         }
     }
 
     @PostMapping("/login")
-    public ResponseEntity<?> login(@RequestBody @Valid LoginRequest loginRequest) {
+    public ResponseEntity<?> login(@RequestBody @Valid LoginRequest loginRequest, HttpServletRequest request) {
         String email = loginRequest.getEmail();
         String password = loginRequest.getPassword();
+        String ip = request.getRemoteAddr();
 
-        if (loginAttemptService.isBlocked(email)) {
+        if (loginAttemptService.isBlocked(email, ip)) {
             return ResponseEntity.status(429).body("Demasiados intentos fallidos. Intenta más tarde.");
         }
 
@@ -124,17 +131,31 @@ public class AuthController {
             }
 
             String normalizedRoles = normalizeRoles(userOpt.get().getRoles());
-            String token = jwtUtils.generateJwtToken(email, normalizedRoles);
+            String token = jwtUtils.generateJwtToken(email, normalizedRoles, userOpt.get().getTokenVersion());
 
             return ResponseEntity.ok(Map.of("token", token));
         } catch (BadCredentialsException e) {
-            loginAttemptService.loginFailed(email);
+            loginAttemptService.loginFailed(email, ip);
             return ResponseEntity.status(401).body("Error: Credenciales inválidas");
+        } catch (PasswordHashingUnavailableException e) {
+            // Saturación del pool de hashing: no cuenta como intento fallido
+            return hashingNoDisponible(e);
+        } catch (InternalAuthenticationServiceException e) {
+            // DaoAuthenticationProvider envuelve lo que lanza el encoder al preparar la protección
+            // contra ataques de tiempo (email desconocido)
+            if (e.getCause() instanceof PasswordHashingUnavailableException saturado) {
+                return hashingNoDisponible(saturado);
+            }
+            return ResponseEntity.status(500).body("Error interno: " + e.getMessage());
         } catch (Exception e) {
             return ResponseEntity.status(500).body("Error interno: " + e.getMessage());
         }
     }
 
+    private static ResponseEntity<?> hashingNoDisponible(PasswordHashingUnavailableException e) {
+        return ResponseEntity.status(e.getStatusCode()).headers(e.getHeaders()).body(e.getReason());
+    }
+
     @GetMapping("/me")
     public ResponseEntity<?> me() {
         Authentication auth = SecurityContextHolder.getContext().getAuthentication();
@@ -157,9 +178,7 @@ public class AuthController {
         String authHeader = request.getHeader("Authorization");
         if (authHeader != null && authHeader.startsWith("Bearer ")) {
             String token = authHeader.substring(7);
-            if (!revokedTokenRepository.existsById(token)) {
-                revokedTokenRepository.save(new RevokedToken(token, new Date()));
-            }
+            tokenRevocationService.revoke(token);
             return ResponseEntity.ok("Token revocado exitosamente");
         }
         return ResponseEntity.badRequest().body("Token no proporcionado");
@@ -179,15 +198,12 @@ public class AuthController {
         }
 
         String normalizedRoles = normalizeRoles(userOpt.get().getRoles());
-        String newToken = jwtUtils.generateJwtToken(email, normalizedRoles);
+        String newToken = jwtUtils.generateJwtToken(email, normalizedRoles, userOpt.get().getTokenVersion());
 
         return ResponseEntity.ok(Map.of("token", newToken));
     }
 
     private String normalizeRoles(String rawRoles) {
-        return Arrays.stream(rawRoles.split(","))
-            .map(String::trim)
-            .map(r -> r.startsWith("ROLE_") ? r : "ROLE_" + r)
-            .collect(Collectors.joining(","));
+        return Roles.normalize(rawRoles);
     }
 }
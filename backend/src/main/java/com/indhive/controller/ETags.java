@@ -0,0 +1,86 @@
+package com.indhive.controller;
+
+import com.indhive.dto.ProjectDTO;
+import com.indhive.dto.SimpleUserDTO;
+import com.indhive.model.Project;
+import com.indhive.model.ProjectCollaborator;
+import com.indhive.model.User;
+import com.indhive.repository.ProjectRepository;
+
+import java.nio.ByteBuffer;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Comparator;
+import java.util.HexFormat;
+
+/**
+ * ETags fuertes calculados con los ids y las versiones (@Version) de las entidades que forman
+ * una respuesta, sin mapearla ni serializarla. Un proyecto incluye a su dueño y a sus colaboradores:
+ * el ETag cambia también si se renombra uno de ellos o cambia la lista. Son deterministas, así que
+ * todas las réplicas calculan el mismo ETag para los mismos datos.
+ */
+final class ETags {
+
+    private final MessageDigest digest;
+    private final ByteBuffer buffer = ByteBuffer.allocate(Long.BYTES);
+
+    private ETags() {
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    static String usuario(User user) {
+        return new ETags().add(user.getId()).add(user.getVersion()).build();
+    }
+
+    static String proyecto(Project proyecto) {
+        ETags etag = new ETags().agregarProyecto(proyecto.getId(), proyecto.getVersion(), proyecto.getOwner().getVersion());
+        proyecto.getCollaborators().stream()
+                .map(ProjectCollaborator::getUser)
+                .sorted(Comparator.comparing(User::getId))
+                .forEach(user -> etag.add(user.getId()).add(user.getVersion()));
+        return etag.build();
+    }
+
+    // Igual que el del proyecto cargado: el de la respuesta de un PUT sirve para el siguiente GET
+    static String proyecto(ProjectDTO proyecto) {
+        return new ETags().agregarProyecto(proyecto).build();
+    }
+
+    // Versión de la página a partir de las sumas de su ventana. Los ids nuevos son mayores que los que
+    // sustituyen y las versiones solo crecen, así que editar, añadir o quitar proyectos cambia alguna suma;
+    // quitar un colaborador sin editar el proyecto cambia el número de colaboradores
+    static String pagina(ProjectRepository.PageVersion version) {
+        return new ETags()
+                .add(version.getProjects()).add(version.getLastId()).add(version.getIdSum())
+                .add(version.getVersionSum()).add(version.getOwnerVersionSum())
+                .add(version.getCollaborators()).add(version.getCollaboratorVersionSum())
+                .build();
+    }
+
+    private ETags agregarProyecto(ProjectDTO proyecto) {
+        agregarProyecto(proyecto.getId(), proyecto.getVersion(), proyecto.getOwnerVersion());
+        proyecto.getCollaborators().stream()
+                .sorted(Comparator.comparing(SimpleUserDTO::getId))
+                .forEach(user -> add(user.getId()).add(user.getVersion()));
+        return this;
+    }
+
+    private ETags agregarProyecto(long id, long version, long ownerVersion) {
+        // Separa un proyecto del siguiente en una página
+        return add(-1).add(id).add(version).add(ownerVersion);
+    }
+
+    private ETags add(long value) {
+        digest.update(buffer.clear().putLong(value).array());
+        return this;
+    }
+
+    private String build() {
+        // 128 bits bastan para que dos versiones distintas no compartan ETag
+        return "\"" + HexFormat.of().formatHex(digest.digest(), 0, 16) + "\"";
+    }
+}
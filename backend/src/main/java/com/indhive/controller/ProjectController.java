@@ -1,31 +1,40 @@
 package com.indhive.controller;
 
+import com.indhive.dto.CursorPage;
 import com.indhive.dto.ProjectDTO;
 import com.indhive.dto.ProjectRequestDTO;
 import com.indhive.dto.SimpleUserDTO;
 import com.indhive.model.Project;
 import com.indhive.model.ProjectCollaborator;
 import com.indhive.model.User;
+import com.indhive.repository.ProjectRepository;
 import com.indhive.service.ProjectService;
 import com.indhive.service.UserService;
 
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
+import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.server.ResponseStatusException;
 
 import java.util.*;
-import java.util.stream.Collectors;
 
 @RestController
+@Validated
 @RequestMapping("/api/projects")
 @Tag(name = "Proyectos", description = "Gestión de proyectos con DTOs")
 public class ProjectController {
 
+    // Los clientes guardan la respuesta pero la revalidan siempre con If-None-Match
+    static final CacheControl REVALIDAR = CacheControl.noCache().cachePrivate();
+
     private final ProjectService projectService;
     private final UserService userService;
 
@@ -36,19 +45,45 @@ public class ProjectController {
 
     @GetMapping
     @PreAuthorize("isAuthenticated()")
-    public List<ProjectDTO> listar() {
-        return projectService.listarProyectos().stream()
-                .map(this::toDTO)
-                .collect(Collectors.toList());
+    public ResponseEntity<List<ProjectDTO>> listar(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Long ownerId,
+            @RequestParam(required = false) String title,
+            @RequestParam(defaultValue = "50") int limit,
+            WebRequest request) {
+        ProjectRepository.PageVersion version;
+        try {
+            version = projectService.versionDePagina(cursor, ownerId, title, limit);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Cursor inválido");
+        }
+
+        // Página igual a la que ya tiene el cliente (If-None-Match): 304 con una consulta de agregados,
+        // sin leer ni mapear la página. Se lee después de la versión, así que nunca es más antigua que su ETag
+        if (request.checkNotModified(ETags.pagina(version))) {
+            return null;
+        }
+        CursorPage<ProjectDTO> page = projectService.listarProyectos(cursor, ownerId, title, limit);
+
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok().cacheControl(REVALIDAR);
+        if (page.getNextCursor() != null) {
+            response.header(CursorPage.NEXT_CURSOR_HEADER, page.getNextCursor());
+        }
+        return response.body(page.getItems());
     }
 
     @GetMapping("/{id}")
     @PreAuthorize("isAuthenticated()")
-    public ResponseEntity<ProjectDTO> obtenerPorId(@PathVariable Long id) {
-        return projectService.obtenerProyectoPorId(id)
-                .map(this::toDTO)
-                .map(ResponseEntity::ok)
-                .orElse(ResponseEntity.notFound().build());
+    public ResponseEntity<ProjectDTO> obtenerPorId(@PathVariable Long id, WebRequest request) {
+        Optional<Project> proyecto = projectService.obtenerProyectoConColaboradores(id);
+        if (proyecto.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        // El ETag sale de las versiones ya cargadas: con If-None-Match vigente, 304 antes de mapear al DTO
+        if (request.checkNotModified(ETags.proyecto(proyecto.get()))) {
+            return null;
+        }
+        return ResponseEntity.ok().cacheControl(REVALIDAR).body(toDTO(proyecto.get()));
     }
 
     @PostMapping
@@ -63,11 +98,8 @@ public class ProjectController {
         Project nuevo = new Project(dto.getTitle(), dto.getDescription(), ownerOpt.get());
 
         if (dto.getCollaboratorIds() != null) {
-            for (Long userId : dto.getCollaboratorIds()) {
-                userService.obtenerUsuarioPorId(userId).ifPresent(user -> {
-                    ProjectCollaborator pc = new ProjectCollaborator(nuevo, user);
-                    nuevo.getCollaborators().add(pc);
-                });
+            for (User user : userService.obtenerUsuariosPorIds(dto.getCollaboratorIds())) {
+                nuevo.getCollaborators().add(new ProjectCollaborator(nuevo, user));
             }
         }
 
@@ -75,51 +107,51 @@ public class ProjectController {
         return ResponseEntity.ok(toDTO(guardado));
     }
 
+    // Importación masiva: todos los proyectos quedan a nombre del usuario autenticado
+    @PostMapping("/bulk")
+    @PreAuthorize("hasAnyRole('ADMIN', 'CREATOR')")
+    public ResponseEntity<Map<String, Object>> crearEnLote(
+            @RequestBody List<@Valid ProjectRequestDTO> dtos,
+            Authentication auth) {
+        if (dtos.size() > ProjectService.MAX_BULK_SIZE) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "Máximo " + ProjectService.MAX_BULK_SIZE + " proyectos por petición");
+        }
+        User owner = userService.obtenerUsuarioPorEmail(auth.getName())
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.BAD_REQUEST, "Usuario autenticado no encontrado"));
+
+        List<Long> ids = projectService.importarProyectos(owner, dtos);
+        return ResponseEntity.ok(Map.of("created", ids.size(), "ids", ids));
+    }
+
     @PutMapping("/{id}")
     @PreAuthorize("hasAnyRole('ADMIN', 'CREATOR')")
     public ResponseEntity<?> actualizar(
             @PathVariable Long id,
             @Valid @RequestBody ProjectRequestDTO dto,
-            Authentication auth) {
-
-        Project proyecto = projectService.obtenerProyectoPorId(id)
-                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND));
+            Authentication auth,
+            WebRequest request) {
 
+        // Los colaboradores se gestionan con SQL por lotes; solo se cargan si hay que comprobar
+        // If-Match, porque forman parte del ETag
+        boolean condicional = request.getHeader(HttpHeaders.IF_MATCH) != null;
         String email = auth.getName();
         boolean isAdmin = auth.getAuthorities().stream()
                 .anyMatch(a -> a.getAuthority().equals("ROLE_ADMIN"));
-        boolean isOwner = proyecto.getOwner().getEmail().equalsIgnoreCase(email);
-
-        if (!isAdmin && !isOwner) {
-            throw new ResponseStatusException(HttpStatus.FORBIDDEN, "No tienes permisos para editar este proyecto");
-        }
 
-        proyecto.setTitle(dto.getTitle());
-        proyecto.setDescription(dto.getDescription());
-
-        if (dto.getCollaboratorIds() != null) {
-            Set<Long> nuevosIds = new HashSet<>(dto.getCollaboratorIds());
-
-            proyecto.getCollaborators().removeIf(pc -> !nuevosIds.contains(pc.getUser().getId()) &&
-                    !pc.getUser().getId().equals(proyecto.getOwner().getId()));
-
-            Set<Long> idsActuales = proyecto.getCollaborators().stream()
-                    .map(pc -> pc.getUser().getId())
-                    .collect(Collectors.toSet());
-
-            dto.getCollaboratorIds().stream()
-                    .filter(userId -> !idsActuales.contains(userId))
-                    .forEach(userId -> userService.obtenerUsuarioPorId(userId)
-                            .ifPresent(user -> {
-                                if (!user.getId().equals(proyecto.getOwner().getId())) {
-                                    ProjectCollaborator pc = new ProjectCollaborator(proyecto, user);
-                                    proyecto.getCollaborators().add(pc);
-                                }
-                            }));
-        }
+        ProjectService.ProyectoActualizado actualizado = projectService.actualizarProyecto(id, dto, condicional, proyecto -> {
+            boolean isOwner = proyecto.getOwner().getEmail().equalsIgnoreCase(email);
+            if (!isAdmin && !isOwner) {
+                throw new ResponseStatusException(HttpStatus.FORBIDDEN, "No tienes permisos para editar este proyecto");
+            }
+            // El cliente editó una versión anterior: 412 sin escribir nada
+            if (condicional && request.checkNotModified(ETags.proyecto(proyecto))) {
+                throw new ResponseStatusException(HttpStatus.PRECONDITION_FAILED);
+            }
+        }).orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND));
 
-        Project actualizado = projectService.guardarProyecto(proyecto);
-        return ResponseEntity.ok(toDTO(actualizado));
+        ProjectDTO respuesta = toDTO(actualizado.proyecto(), actualizado.colaboradores());
+        return ResponseEntity.ok().eTag(ETags.proyecto(respuesta)).body(respuesta);
     }
 
     @DeleteMapping("/{id}")
@@ -164,15 +196,18 @@ public class ProjectController {
         }
     }
 
-    private ProjectDTO toDTO(Project p) {
-        List<SimpleUserDTO> collaborators = p.getCollaborators().stream()
-                .map(pc -> new SimpleUserDTO(
-                        pc.getUser().getId(),
-                        pc.getUser().getUsername()
-                ))
-                .collect(Collectors.toList());
+    // Público y estático para medirlo en ProjectMappingBenchmark
+    public static ProjectDTO toDTO(Project p) {
+        List<SimpleUserDTO> collaborators = new ArrayList<>(p.getCollaborators().size());
+        for (ProjectCollaborator pc : p.getCollaborators()) {
+            User user = pc.getUser();
+            collaborators.add(new SimpleUserDTO(user.getId(), user.getUsername(), user.getVersion()));
+        }
+        return toDTO(p, collaborators);
+    }
 
-        return new ProjectDTO(
+    private static ProjectDTO toDTO(Project p, List<SimpleUserDTO> collaborators) {
+        ProjectDTO dto = new ProjectDTO(
                 p.getId(),
                 p.getTitle(),
                 p.getDescription(),
@@ -180,5 +215,8 @@ public class ProjectController {
                 p.getOwner().getUsername(),
                 collaborators
         );
+        dto.setVersion(p.getVersion());
+        dto.setOwnerVersion(p.getOwner().getVersion());
+        return dto;
     }
 }
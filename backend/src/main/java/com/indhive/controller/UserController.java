@@ -1,5 +1,10 @@
 package com.indhive.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.indhive.dto.CursorPage;
+import com.indhive.dto.ProjectSummaryDTO;
 import com.indhive.dto.UserDTO;
 import com.indhive.dto.UserRequestDTO;
 import com.indhive.model.User;
@@ -11,42 +16,94 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 
 import jakarta.validation.Valid;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
+import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
 
 import java.util.*;
-import java.util.stream.Collectors;
 
 @RestController
+@Validated
 @RequestMapping("/api/users")
 @Tag(name = "Usuarios", description = "Gestión de usuarios del sistema")
 public class UserController {
 
     private final UserService userService;
     private final JwtUtils jwtUtils;
+    private final ObjectMapper objectMapper;
 
-    public UserController(UserService userService, JwtUtils jwtUtils) {
+    public UserController(UserService userService, JwtUtils jwtUtils, ObjectMapper objectMapper) {
         this.userService = userService;
         this.jwtUtils = jwtUtils;
+        this.objectMapper = objectMapper;
     }
 
+    @Operation(summary = "Directorio de usuarios paginado por cursor",
+               description = "Busca por prefijo de username o email; el cursor siguiente va en la cabecera X-Next-Cursor")
     @PreAuthorize("isAuthenticated()")
     @GetMapping
-    public List<UserDTO> listar() {
-        return userService.listarUsuarios().stream()
-                .map(this::toDTO)
-                .collect(Collectors.toList());
+    public ResponseEntity<List<UserDTO>> listar(
+            @RequestParam(required = false) String search,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int limit) {
+        CursorPage<UserDTO> page;
+        try {
+            page = userService.listarUsuarios(cursor, search, limit);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Cursor inválido");
+        }
+
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (page.getNextCursor() != null) {
+            response.header(CursorPage.NEXT_CURSOR_HEADER, page.getNextCursor());
+        }
+        return response.body(page.getItems());
+    }
+
+    @Operation(summary = "Exportar usuarios (NDJSON)",
+               description = "Escribe un usuario por línea a medida que se leen de la base de datos")
+    @PreAuthorize("hasRole('ADMIN')")
+    @GetMapping(value = "/export", produces = "application/x-ndjson")
+    public ResponseEntity<StreamingResponseBody> exportar() {
+        StreamingResponseBody body = out -> {
+            try (SequenceWriter writer = objectMapper.writerFor(UserDTO.class)
+                    .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE)
+                    .withRootValueSeparator("\n")
+                    .writeValues(out)) {
+                userService.exportarUsuarios(usuario -> {
+                    try {
+                        writer.write(usuario);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            }
+        };
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType("application/x-ndjson"))
+                .body(body);
     }
 
     @Operation(summary = "Obtener usuario por ID")
     @GetMapping("/{id}")
-    public ResponseEntity<UserDTO> obtenerPorId(@PathVariable Long id) {
-        return userService.obtenerUsuarioPorId(id)
-                .map(this::toDTO)
-                .map(ResponseEntity::ok)
-                .orElse(ResponseEntity.notFound().build());
+    public ResponseEntity<UserDTO> obtenerPorId(@PathVariable Long id, WebRequest request) {
+        Optional<User> userOpt = userService.obtenerUsuarioPorId(id);
+        if (userOpt.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        if (request.checkNotModified(ETags.usuario(userOpt.get()))) {
+            return null;
+        }
+        return ResponseEntity.ok().cacheControl(ProjectController.REVALIDAR).body(toDTO(userOpt.get()));
     }
 
     @Operation(summary = "Crear un nuevo usuario")
@@ -63,6 +120,20 @@ public class UserController {
         return ResponseEntity.ok(toDTO(saved));
     }
 
+    @Operation(summary = "Alta masiva de usuarios",
+               description = "Inserta en lotes dentro de una transacción; devuelve los ids generados en el orden recibido, "
+                       + "o 409 con los emails y usernames duplicados sin crear ninguno")
+    @PreAuthorize("hasRole('ADMIN')")
+    @PostMapping("/bulk")
+    public ResponseEntity<Map<String, Object>> crearEnLote(@RequestBody List<@Valid UserRequestDTO> dtos) {
+        if (dtos.size() > UserService.MAX_BULK_SIZE) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "Máximo " + UserService.MAX_BULK_SIZE + " usuarios por petición");
+        }
+        List<Long> ids = userService.importarUsuarios(dtos);
+        return ResponseEntity.ok(Map.of("created", ids.size(), "ids", ids));
+    }
+
     @Operation(summary = "Actualizar un usuario")
     @PreAuthorize("isAuthenticated()")
     @PutMapping("/{id}")
@@ -96,18 +167,40 @@ public class UserController {
         return ResponseEntity.ok().build();
     }
 
-    @Operation(summary = "Listar proyectos de un usuario")
+    @Operation(summary = "Listar proyectos de un usuario",
+               description = "Proyectos propios y colaboraciones paginados por cursor; el cursor siguiente va en la cabecera X-Next-Cursor")
     @PreAuthorize("isAuthenticated()")
     @GetMapping("/{id}/projects")
-    public ResponseEntity<Map<String, Object>> listarProyectosDeUsuario(@PathVariable Long id) {
-        return userService.obtenerUsuarioPorId(id)
-                .map(user -> {
-                    Map<String, Object> response = new HashMap<>();
-                    response.put("ownedProjects", user.getOwnedProjects());
-                    response.put("collaboratedProjects", userService.buscarColaboraciones(user.getId()));
-                    return ResponseEntity.ok(response);
-                })
-                .orElse(ResponseEntity.notFound().build());
+    public ResponseEntity<Map<String, Object>> listarProyectosDeUsuario(
+            @PathVariable Long id,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int limit) {
+        Optional<CursorPage<ProjectSummaryDTO>> pageOpt;
+        try {
+            pageOpt = userService.listarProyectosDeUsuario(id, cursor, limit);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Cursor inválido");
+        }
+        if (pageOpt.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+
+        CursorPage<ProjectSummaryDTO> page = pageOpt.get();
+        List<ProjectSummaryDTO> owned = new ArrayList<>();
+        List<ProjectSummaryDTO> collaborated = new ArrayList<>();
+        for (ProjectSummaryDTO proyecto : page.getItems()) {
+            (id.equals(proyecto.getOwnerId()) ? owned : collaborated).add(proyecto);
+        }
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("ownedProjects", owned);
+        response.put("collaboratedProjects", collaborated);
+
+        ResponseEntity.BodyBuilder builder = ResponseEntity.ok();
+        if (page.getNextCursor() != null) {
+            builder.header(CursorPage.NEXT_CURSOR_HEADER, page.getNextCursor());
+        }
+        return builder.body(response);
     }
 
     @Operation(summary = "Cambiar mi contraseña")
@@ -141,7 +234,8 @@ public class UserController {
 
         // Usamos el servicio para actualizar el usuario de manera segura
         User actualizado = userService.actualizarUsuario(userOpt.get().getId(), dto, false);
-        String nuevoToken = jwtUtils.generateJwtToken(actualizado.getEmail(), actualizado.getRoles());
+        String nuevoToken = jwtUtils.generateJwtToken(actualizado.getEmail(), actualizado.getRoles(),
+                actualizado.getTokenVersion());
 
         return ResponseEntity.ok(Map.of(
                 "message", "Perfil actualizado correctamente",
@@ -156,14 +250,9 @@ public class UserController {
         if (userOpt.isEmpty())
             return ResponseEntity.status(404).build();
 
-        User user = userOpt.get();
-        if (!user.getRoles().contains("ROLE_CREATOR")) {
-            String nuevosRoles = user.getRoles() + ",ROLE_CREATOR";
-            user.setRoles(nuevosRoles);
-            userService.guardarUsuario(user);
-        }
+        User user = userService.agregarRol(userOpt.get(), "ROLE_CREATOR");
 
-        String nuevoToken = jwtUtils.generateJwtToken(user.getEmail(), user.getRoles());
+        String nuevoToken = jwtUtils.generateJwtToken(user.getEmail(), user.getRoles(), user.getTokenVersion());
         return ResponseEntity.ok(Map.of("token", nuevoToken));
     }
 
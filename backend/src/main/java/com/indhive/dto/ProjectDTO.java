@@ -1,5 +1,8 @@
 package com.indhive.dto;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+import java.util.ArrayList;
 import java.util.List; 
 
 public class ProjectDTO {
@@ -11,11 +14,18 @@ public class ProjectDTO {
     private String ownerUsername;
     private List<SimpleUserDTO> collaborators; 
 
+    // Versiones del proyecto y de su dueño: solo para calcular el ETag, no se serializan
+    @JsonIgnore
+    private long version;
+    @JsonIgnore
+    private long ownerVersion;
+
     public ProjectDTO() {}
 
     public ProjectDTO(Long id, String title, String description,
                       Long ownerId, String ownerUsername,
                       List<SimpleUserDTO> collaborators) { 
+        this.id = id;
         this.title = title;
         this.description = description;
         this.ownerId = ownerId;
@@ -23,6 +33,20 @@ public class ProjectDTO {
         this.collaborators = collaborators;
     }
 
+    // Usado por las consultas de proyección; los colaboradores se asignan después
+    public ProjectDTO(Long id, String title, String description,
+                      Long ownerId, String ownerUsername) {
+        this(id, title, description, ownerId, ownerUsername, new ArrayList<>());
+    }
+
+    // Proyección del listado, con las versiones para su ETag
+    public ProjectDTO(Long id, String title, String description,
+                      Long ownerId, String ownerUsername, long version, long ownerVersion) {
+        this(id, title, description, ownerId, ownerUsername);
+        this.version = version;
+        this.ownerVersion = ownerVersion;
+    }
+
     public Long getId() {
         return id;
     }
@@ -47,6 +71,22 @@ public class ProjectDTO {
         return collaborators;
     }
 
+    public long getVersion() {
+        return version;
+    }
+
+    public long getOwnerVersion() {
+        return ownerVersion;
+    }
+
+    public void setVersion(long version) {
+        this.version = version;
+    }
+
+    public void setOwnerVersion(long ownerVersion) {
+        this.ownerVersion = ownerVersion;
+    }
+
     public void setId(Long id) {
         this.id = id;
     }
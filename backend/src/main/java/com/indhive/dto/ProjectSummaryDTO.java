@@ -0,0 +1,60 @@
+package com.indhive.dto;
+
+public class ProjectSummaryDTO {
+
+    private Long id;
+    private String title;
+    private String description;
+    private Long ownerId;
+    private String ownerUsername;
+
+    public ProjectSummaryDTO() {}
+
+    public ProjectSummaryDTO(Long id, String title, String description, Long ownerId, String ownerUsername) {
+        this.id = id;
+        this.title = title;
+        this.description = description;
+        this.ownerId = ownerId;
+        this.ownerUsername = ownerUsername;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getTitle() {
+        return title;
+    }
+
+    public void setTitle(String title) {
+        this.title = title;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    public void setDescription(String description) {
+        this.description = description;
+    }
+
+    public Long getOwnerId() {
+        return ownerId;
+    }
+
+    public void setOwnerId(Long ownerId) {
+        this.ownerId = ownerId;
+    }
+
+    public String getOwnerUsername() {
+        return ownerUsername;
+    }
+
+    public void setOwnerUsername(String ownerUsername) {
+        this.ownerUsername = ownerUsername;
+    }
+}
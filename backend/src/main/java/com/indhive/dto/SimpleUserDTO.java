@@ -1,9 +1,15 @@
 package com.indhive.dto;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
 public class SimpleUserDTO {
     private Long id;
     private String username;
 
+    // Versión del usuario, para el ETag del proyecto en el que aparece; no se serializa
+    @JsonIgnore
+    private long version;
+
     public SimpleUserDTO() {}
 
     public SimpleUserDTO(Long id, String username) {
@@ -11,6 +17,11 @@ public class SimpleUserDTO {
         this.username = username;
     }
 
+    public SimpleUserDTO(Long id, String username, long version) {
+        this(id, username);
+        this.version = version;
+    }
+
     public Long getId() {
         return id;
     }
@@ -19,6 +30,10 @@ public class SimpleUserDTO {
         return username;
     }
 
+    public long getVersion() {
+        return version;
+    }
+
     public void setId(Long id) {
         this.id = id;
     }
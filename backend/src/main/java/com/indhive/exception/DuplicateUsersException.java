@@ -0,0 +1,27 @@
+package com.indhive.exception;
+
+import java.util.List;
+
+/**
+ * Alta masiva rechazada antes de escribir nada: algunos emails o usernames ya existen
+ * o aparecen más de una vez en la misma petición.
+ */
+public class DuplicateUsersException extends RuntimeException {
+
+    private final List<String> emails;
+    private final List<String> usernames;
+
+    public DuplicateUsersException(List<String> emails, List<String> usernames) {
+        super("Usuarios duplicados: emails " + emails + ", usernames " + usernames);
+        this.emails = emails;
+        this.usernames = usernames;
+    }
+
+    public List<String> getEmails() {
+        return emails;
+    }
+
+    public List<String> getUsernames() {
+        return usernames;
+    }
+}
@@ -1,5 +1,9 @@
 package com.indhive.exception;
 
+import jakarta.persistence.OptimisticLockException;
+import jakarta.validation.ConstraintViolationException;
+
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.BadCredentialsException;
@@ -23,5 +27,43 @@ public class GlobalExceptionHandler {
         return new ResponseEntity<>(body, HttpStatus.UNAUTHORIZED);
     }
 
+    // Validación de elementos en listas (@Valid sobre el tipo, p. ej. altas masivas)
+    @ExceptionHandler(ConstraintViolationException.class)
+    public ResponseEntity<Object> handleConstraintViolation(ConstraintViolationException ex) {
+        Map<String, Object> body = new HashMap<>();
+        body.put("timestamp", Instant.now().toString());
+        body.put("status", HttpStatus.BAD_REQUEST.value());
+        body.put("error", "Bad Request");
+        body.put("message", ex.getConstraintViolations().stream()
+                .map(v -> v.getPropertyPath() + ": " + v.getMessage())
+                .sorted()
+                .toList());
+        return new ResponseEntity<>(body, HttpStatus.BAD_REQUEST);
+    }
+
+    // Dos ediciones simultáneas del mismo recurso (@Version): la segunda debe recargarlo y repetirse
+    @ExceptionHandler({ OptimisticLockingFailureException.class, OptimisticLockException.class })
+    public ResponseEntity<Object> handleOptimisticLock(Exception ex) {
+        Map<String, Object> body = new HashMap<>();
+        body.put("timestamp", Instant.now().toString());
+        body.put("status", HttpStatus.CONFLICT.value());
+        body.put("error", "Conflict");
+        body.put("message", "El recurso se modificó mientras se editaba; vuelve a cargarlo");
+        return new ResponseEntity<>(body, HttpStatus.CONFLICT);
+    }
+
+    // Alta masiva con emails o usernames ya registrados o repetidos: se devuelven todos para corregirlos de una vez
+    @ExceptionHandler(DuplicateUsersException.class)
+    public ResponseEntity<Object> handleDuplicateUsers(DuplicateUsersException ex) {
+        Map<String, Object> body = new HashMap<>();
+        body.put("timestamp", Instant.now().toString());
+        body.put("status", HttpStatus.CONFLICT.value());
+        body.put("error", "Conflict");
+        body.put("message", "Hay usuarios duplicados; no se ha creado ninguno");
+        body.put("duplicateEmails", ex.getEmails());
+        body.put("duplicateUsernames", ex.getUsernames());
+        return new ResponseEntity<>(body, HttpStatus.CONFLICT);
+    }
+
     // Puedes agregar más excepciones aquí si quieres manejar 403, 500, etc.
 }
@@ -0,0 +1,34 @@
+package com.indhive.model;
+
+import jakarta.persistence.*;
+
+/**
+ * Fallos de login de una clave ("acct:email" o "ip:dirección") en un tramo de tiempo,
+ * compartidos entre réplicas con security.cluster.mode=postgres.
+ * Se escribe con SQL nativo (INSERT ... ON CONFLICT) desde JdbcLoginAttemptStore.
+ */
+@Entity
+@Table(name = "login_attempts", indexes = @Index(name = "idx_login_attempts_bucket", columnList = "bucket"))
+public class LoginAttemptCounter {
+
+    @EmbeddedId
+    private LoginAttemptCounterId id;
+
+    @Column(nullable = false)
+    private int failures;
+
+    public LoginAttemptCounter() {}
+
+    public LoginAttemptCounter(LoginAttemptCounterId id, int failures) {
+        this.id = id;
+        this.failures = failures;
+    }
+
+    public LoginAttemptCounterId getId() {
+        return id;
+    }
+
+    public int getFailures() {
+        return failures;
+    }
+}
@@ -0,0 +1,42 @@
+package com.indhive.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+import java.io.Serializable;
+import java.util.Objects;
+
+@Embeddable
+public class LoginAttemptCounterId implements Serializable {
+
+    @Column(length = 320)
+    private String attemptKey;
+    private Long bucket;
+
+    public LoginAttemptCounterId() {}
+
+    public LoginAttemptCounterId(String attemptKey, Long bucket) {
+        this.attemptKey = attemptKey;
+        this.bucket = bucket;
+    }
+
+    public String getAttemptKey() {
+        return attemptKey;
+    }
+
+    public Long getBucket() {
+        return bucket;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof LoginAttemptCounterId that)) return false;
+        return Objects.equals(attemptKey, that.attemptKey) &&
+               Objects.equals(bucket, that.bucket);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(attemptKey, bucket);
+    }
+}
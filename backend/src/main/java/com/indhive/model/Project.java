@@ -7,18 +7,24 @@ import java.util.HashSet;
 import java.util.Set;
 
 import com.fasterxml.jackson.annotation.JsonIdentityInfo;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.ObjectIdGenerators;
 
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.hibernate.annotations.OnDelete;
 import org.hibernate.annotations.OnDeleteAction;
 
 @Entity
-@Table(name = "proyectos")
+@Table(name = "proyectos", indexes = @Index(name = "idx_proyectos_owner_id", columnList = "owner_id"))
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 @JsonIdentityInfo(generator = ObjectIdGenerators.PropertyGenerator.class, property = "id")
 public class Project {
 
+    // Ids de una secuencia reservados de 50 en 50 (como hibernate.jdbc.batch_size): IDENTITY impide agrupar inserts
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "proyectos_seq")
+    @SequenceGenerator(name = "proyectos_seq", sequenceName = "proyectos_seq", allocationSize = 50)
     private Long id;
 
     @NotBlank
@@ -28,14 +34,21 @@ public class Project {
     @Column(columnDefinition = "TEXT", nullable = true)
     private String description;
 
+    // Bloqueo optimista y ETag: una edición, incluidos los cambios de colaboradores, crea una versión nueva
+    @Version
+    @JsonIgnore
+    @Column(nullable = false)
+    private long version;
+
     // Relación Many-to-One con User, representa al dueño del proyecto
     @ManyToOne
     @JoinColumn(name = "owner_id", nullable = false, referencedColumnName = "id", foreignKey = @ForeignKey(name = "fk_project_owner"))
     @OnDelete(action = OnDeleteAction.CASCADE)
     private User owner;
 
-    // Nueva relación con entidad intermedia
+    // Nueva relación con entidad intermedia; en caché se guardan solo los ids de cada colaborador
     @OneToMany(mappedBy = "project", cascade = CascadeType.ALL, orphanRemoval = true)
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
     private Set<ProjectCollaborator> collaborators = new HashSet<>();
 
     public Project() {
@@ -72,6 +85,10 @@ public class Project {
         this.description = description;
     }
 
+    public long getVersion() {
+        return version;
+    }
+
     public User getOwner() {
         return owner;
     }
@@ -2,8 +2,13 @@ package com.indhive.model;
 
 import jakarta.persistence.*;
 
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+
 @Entity
-@Table(name = "project_collaborators")
+// Las búsquedas por proyecto usan la clave primaria (project_id, user_id); las de un usuario, este índice
+@Table(name = "project_collaborators", indexes = @Index(name = "idx_project_collaborators_user_id", columnList = "user_id"))
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 public class ProjectCollaborator {
 
     @EmbeddedId
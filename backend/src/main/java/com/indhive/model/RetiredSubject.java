@@ -0,0 +1,46 @@
+package com.indhive.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+
+import java.util.Date;
+
+/**
+ * Email que dejó de identificar a un usuario (usuario eliminado o email cambiado).
+ * Los tokens emitidos para él antes de retirarlo no pueden autenticarse con sus claims;
+ * se guarda hasta que esos tokens habrían expirado.
+ */
+@Entity
+@Table(name = "retired_subjects", indexes = {
+        @Index(name = "idx_retired_subjects_retired_at", columnList = "retiredAt")
+})
+public class RetiredSubject {
+    @Id
+    private String email;
+
+    @Column(nullable = false)
+    private Date retiredAt;
+
+    public RetiredSubject() {}
+
+    public RetiredSubject(String email, Date retiredAt) {
+        this.email = email;
+        this.retiredAt = retiredAt;
+    }
+
+    // Getters y Setters
+    public String getEmail() {
+        return email;
+    }
+
+    public Date getRetiredAt() {
+        return retiredAt;
+    }
+
+    public void setRetiredAt(Date retiredAt) {
+        this.retiredAt = retiredAt;
+    }
+}
@@ -1,24 +1,44 @@
 package com.indhive.model;
 
+import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
 
 import java.util.Date;
 
+/**
+ * Token revocado, identificado por el hash SHA-256 del JWT en lugar del token completo.
+ * Guarda la expiración original del token para poder purgarlo cuando ya no sea válido.
+ */
 @Entity
+@Table(name = "revoked_tokens", indexes = {
+        @Index(name = "idx_revoked_tokens_expires_at", columnList = "expiresAt"),
+        @Index(name = "idx_revoked_tokens_revoked_at", columnList = "revokedAt")
+})
 public class RevokedToken {
     @Id
-    private String token;
+    @Column(length = 64)
+    private String tokenHash;
     private Date revokedAt;
 
+    @Column(nullable = false)
+    private Date expiresAt;
+
     public RevokedToken() {}
 
-    public RevokedToken(String token, Date revokedAt) {
-        this.token = token;
+    public RevokedToken(String tokenHash, Date revokedAt, Date expiresAt) {
+        this.tokenHash = tokenHash;
         this.revokedAt = revokedAt;
+        this.expiresAt = expiresAt;
     }
 
     // Getters y Setters
+    public String getTokenHash() {
+        return tokenHash;
+    }
+
     public Date getRevokedAt() {
         return revokedAt;
     }
@@ -26,4 +46,12 @@ public class RevokedToken {
     public void setRevokedAt(Date revokedAt) {
         this.revokedAt = revokedAt;
     }
+
+    public Date getExpiresAt() {
+        return expiresAt;
+    }
+
+    public void setExpiresAt(Date expiresAt) {
+        this.expiresAt = expiresAt;
+    }
 }
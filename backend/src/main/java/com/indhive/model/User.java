@@ -1,24 +1,40 @@
 package com.indhive.model;
 
+import com.indhive.security.Roles;
+
 import jakarta.persistence.*;
 import java.util.HashSet;
 import java.util.Set;
-import java.util.stream.Collectors;
-import java.util.Arrays;
 
 import com.fasterxml.jackson.annotation.JsonIdentityInfo;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.ObjectIdGenerators;
 
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+
 @Entity
-@Table(name = "usuarios")
+// Índices declarados también en db/migration (V2); los de LOWER(...) para el directorio solo existen allí
+@Table(name = "usuarios", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_usuarios_email", columnNames = "email"),
+        @UniqueConstraint(name = "uk_usuarios_username", columnNames = "username")
+})
+// Solo la entidad: las colecciones ownedProjects y collaborations no se cachean
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
+@NamedEntityGraph(name = User.WITH_OWNED_PROJECTS, attributeNodes = @NamedAttributeNode("ownedProjects"))
 @JsonIdentityInfo(
     generator = ObjectIdGenerators.PropertyGenerator.class,
     property = "id"
 )
 public class User {
 
+    // Plan de carga para los endpoints que necesitan los proyectos del usuario
+    public static final String WITH_OWNED_PROJECTS = "User.withOwnedProjects";
+
+    // Ids de una secuencia reservados de 50 en 50 (como hibernate.jdbc.batch_size): IDENTITY impide agrupar inserts
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "usuarios_seq")
+    @SequenceGenerator(name = "usuarios_seq", sequenceName = "usuarios_seq", allocationSize = 50)
     private Long id;
 
     private String username;
@@ -29,7 +45,18 @@ public class User {
 
     private String password;
 
-    @OneToMany(mappedBy = "owner", fetch = FetchType.EAGER, cascade = CascadeType.ALL, orphanRemoval = true)
+    // Se incrementa cuando cambian los roles o la identidad: invalida los claims de tokens anteriores
+    @JsonIgnore
+    @Column(nullable = false, columnDefinition = "integer default 0")
+    private int tokenVersion = 0;
+
+    // Bloqueo optimista y ETag de GET /api/users/{id}: cambia con cualquier modificación del usuario
+    @Version
+    @JsonIgnore
+    @Column(nullable = false)
+    private long version;
+
+    @OneToMany(mappedBy = "owner", fetch = FetchType.LAZY, cascade = CascadeType.ALL, orphanRemoval = true)
     private Set<Project> ownedProjects = new HashSet<>();
 
     @OneToMany(mappedBy = "user", cascade = CascadeType.ALL, orphanRemoval = true)
@@ -40,7 +67,7 @@ public class User {
     public User(String username, String email, String roles, String password) {
         this.username = username;
         this.email = email;
-        this.roles = roles;
+        this.roles = Roles.normalize(roles);
         this.password = password;
     }
 
@@ -61,19 +88,19 @@ public class User {
     public String getRoles() { return roles; }
 
     public void setRoles(String roles) {
-        if (roles != null) {
-            this.roles = Arrays.stream(roles.split(","))
-                .map(role -> role.trim().startsWith("ROLE_") ? role.trim() : "ROLE_" + role.trim())
-                .collect(Collectors.joining(","));
-        } else {
-            this.roles = null;
-        }
+        this.roles = Roles.normalize(roles);
     }
 
     public String getPassword() { return password; }
 
     public void setPassword(String password) { this.password = password; }
 
+    public int getTokenVersion() { return tokenVersion; }
+
+    public void setTokenVersion(int tokenVersion) { this.tokenVersion = tokenVersion; }
+
+    public long getVersion() { return version; }
+
     public Set<Project> getOwnedProjects() { return ownedProjects; }
 
     public void setOwnedProjects(Set<Project> ownedProjects) { this.ownedProjects = ownedProjects; }
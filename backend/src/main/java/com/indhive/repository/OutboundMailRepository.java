@@ -0,0 +1,58 @@
+package com.indhive.repository;
+
+import com.indhive.model.OutboundMail;
+
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import jakarta.transaction.Transactional;
+
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.List;
+
+@Repository
+public interface OutboundMailRepository extends JpaRepository<OutboundMail, Long> {
+
+    // Sustituye el contenido del correo pendiente con esa clave, si lo hay
+    @Modifying
+    @Query("UPDATE OutboundMail m SET m.subject = :subject, m.body = :body "
+            + "WHERE m.dedupKey = :dedupKey AND m.status = com.indhive.model.OutboundMail$Status.PENDING")
+    int updatePending(@Param("dedupKey") String dedupKey, @Param("subject") String subject, @Param("body") String body);
+
+    // Encola un correo salvo que ya haya uno pendiente con la misma clave (índice único parcial
+    // uk_outbound_mail_pending_dedup_key): dos peticiones simultáneas no encolan dos correos.
+    // El id sale de la secuencia como el de Hibernate: con pooled, cada nextval es el final de un bloque propio
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "outbound_mail"))
+    @Query(value = "INSERT INTO outbound_mail "
+            + "(id, recipient, subject, body, dedup_key, status, attempts, next_attempt_at, created_at) "
+            + "VALUES (nextval('outbound_mail_seq'), :recipient, :subject, :body, :dedupKey, 'PENDING', 0, :now, :now) "
+            + "ON CONFLICT DO NOTHING", nativeQuery = true)
+    int insertPending(@Param("recipient") String recipient, @Param("subject") String subject,
+                      @Param("body") String body, @Param("dedupKey") String dedupKey, @Param("now") Instant now);
+
+    boolean existsByDedupKeyAndStatusAndSentAtAfter(String dedupKey, OutboundMail.Status status, Instant sentAfter);
+
+    // Correos listos para enviar. Timeout -2 = SKIP LOCKED en PostgreSQL: varios workers
+    // (o varias instancias) reclaman lotes distintos sin esperarse entre sí
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("SELECT m FROM OutboundMail m WHERE m.status = com.indhive.model.OutboundMail$Status.PENDING "
+            + "AND m.nextAttemptAt <= :now ORDER BY m.id")
+    List<OutboundMail> findDueForUpdate(@Param("now") Instant now, Pageable pageable);
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM OutboundMail m WHERE m.status <> com.indhive.model.OutboundMail$Status.PENDING "
+            + "AND m.createdAt < :before")
+    int deleteFinishedBefore(@Param("before") Instant before);
+}
@@ -2,12 +2,18 @@ package com.indhive.repository;
 
 import com.indhive.model.ProjectCollaborator;
 import com.indhive.model.ProjectCollaboratorId;
+
+import jakarta.persistence.QueryHint;
+
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -15,6 +21,20 @@ public interface ProjectCollaboratorRepository extends JpaRepository<ProjectColl
 
     List<ProjectCollaborator> findByUserId(Long userId);
 
+    // Fila mínima para construir SimpleUserDTO agrupado por proyecto
+    interface CollaboratorRow {
+        Long getProjectId();
+        Long getUserId();
+        String getUsername();
+        Long getUserVersion();
+    }
+
+    // Colaboradores de varios proyectos en una sola consulta
+    @Query("SELECT pc.project.id AS projectId, u.id AS userId, u.username AS username, u.version AS userVersion "
+            + "FROM ProjectCollaborator pc JOIN pc.user u "
+            + "WHERE pc.project.id IN :projectIds ORDER BY u.id")
+    List<CollaboratorRow> findRowsByProjectIds(@Param("projectIds") Collection<Long> projectIds);
+
     @Modifying
     @Query("DELETE FROM ProjectCollaborator pc WHERE pc.user.id = :userId")
     void deleteByUserId(@Param("userId") Long userId);
@@ -22,4 +42,19 @@ public interface ProjectCollaboratorRepository extends JpaRepository<ProjectColl
     @Modifying
     @Query("DELETE FROM ProjectCollaborator pc WHERE pc.project.id = :projectId")
     void deleteByProjectId(@Param("projectId") Long projectId);
+
+    // Quita de una vez los colaboradores que ya no están en la lista
+    @Modifying
+    @Query("DELETE FROM ProjectCollaborator pc WHERE pc.project.id = :projectId AND pc.user.id NOT IN :userIds")
+    int deleteByProjectIdAndUserIdNotIn(@Param("projectId") Long projectId,
+                                        @Param("userIds") Collection<Long> userIds);
+
+    // Inserta en un solo INSERT multi-fila los usuarios existentes que aún no colaboran.
+    // Sin declarar la tabla, Hibernate no sabe qué toca el SQL nativo y vacía toda la caché de segundo nivel
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "project_collaborators"))
+    @Query(value = "INSERT INTO project_collaborators (project_id, user_id) "
+            + "SELECT :projectId, u.id FROM usuarios u WHERE u.id IN (:userIds) "
+            + "ON CONFLICT DO NOTHING", nativeQuery = true)
+    int insertMissing(@Param("projectId") Long projectId, @Param("userIds") Collection<Long> userIds);
 }
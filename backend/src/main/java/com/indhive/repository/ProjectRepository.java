@@ -1,27 +1,88 @@
 package com.indhive.repository;
 
+import com.indhive.dto.ProjectDTO;
+import com.indhive.dto.ProjectSummaryDTO;
 import com.indhive.model.Project;
 import com.indhive.model.User;
 
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;  // Asegúrate de que esta importación esté presente
+import jakarta.persistence.LockModeType;
 import jakarta.transaction.Transactional;
 import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface ProjectRepository extends JpaRepository<Project, Long> {
     
-    @EntityGraph(attributePaths = { "owner", "collaborators" })
-    @org.springframework.lang.NonNull
-    List<Project> findAll();
-
     List<Project> findByOwner(User owner);
 
+    // Proyecto con dueño, colaboradores y sus usuarios en una sola consulta (detalle y edición)
+    @EntityGraph(attributePaths = { "owner", "collaborators", "collaborators.user" })
+    Optional<Project> findWithCollaboratorsById(Long id);
+
+    // Proyecto con su dueño, con la fila bloqueada hasta el final de la transacción (edición)
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT p FROM Project p JOIN FETCH p.owner WHERE p.id = :id")
+    Optional<Project> findForUpdateById(@Param("id") Long id);
+
+    // Paginación keyset: proyección con solo las columnas de ProjectDTO (y las versiones del ETag), sin cargar entidades
+    @Query("SELECT new com.indhive.dto.ProjectDTO(p.id, p.title, p.description, o.id, o.username, p.version, o.version) "
+            + "FROM Project p JOIN p.owner o WHERE p.id > :afterId "
+            + "AND (:ownerId IS NULL OR o.id = :ownerId) "
+            + "AND (:titlePrefix IS NULL OR LOWER(p.title) LIKE :titlePrefix ESCAPE '\\') "
+            + "ORDER BY p.id")
+    List<ProjectDTO> findPage(@Param("afterId") Long afterId,
+                              @Param("ownerId") Long ownerId,
+                              @Param("titlePrefix") String titlePrefix,
+                              Pageable pageable);
+
+    // Resumen de una ventana del listado: lo que cambia cuando cambia algo de lo que muestra
+    interface PageVersion {
+        Long getProjects();
+        Long getLastId();
+        Long getIdSum();
+        Long getVersionSum();
+        Long getOwnerVersionSum();
+        Long getCollaborators();
+        Long getCollaboratorVersionSum();
+    }
+
+    // Misma ventana que findPage (mismos filtros, orden y límite), pero solo sumas de ids y versiones:
+    // sin títulos, descripciones ni filas de colaboradores
+    @Query(value = "SELECT COUNT(*) AS projects, COALESCE(MAX(w.id), 0) AS lastId, COALESCE(SUM(w.id), 0) AS idSum, "
+            + "COALESCE(SUM(w.version), 0) AS versionSum, COALESCE(SUM(w.owner_version), 0) AS ownerVersionSum, "
+            + "COALESCE(SUM(w.collaborators), 0) AS collaborators, "
+            + "COALESCE(SUM(w.collaborator_versions), 0) AS collaboratorVersionSum "
+            + "FROM (SELECT p.id, p.version, o.version AS owner_version, "
+            + "(SELECT COUNT(*) FROM project_collaborators pc WHERE pc.project_id = p.id) AS collaborators, "
+            + "(SELECT COALESCE(SUM(u.version), 0) FROM project_collaborators pc JOIN usuarios u ON u.id = pc.user_id "
+            + "WHERE pc.project_id = p.id) AS collaborator_versions "
+            + "FROM proyectos p JOIN usuarios o ON o.id = p.owner_id WHERE p.id > :afterId "
+            + "AND (CAST(:ownerId AS BIGINT) IS NULL OR p.owner_id = :ownerId) "
+            + "AND (CAST(:titlePrefix AS VARCHAR) IS NULL OR LOWER(p.title) LIKE :titlePrefix ESCAPE '\\') "
+            + "ORDER BY p.id LIMIT :limit) w", nativeQuery = true)
+    PageVersion findPageVersion(@Param("afterId") Long afterId,
+                                @Param("ownerId") Long ownerId,
+                                @Param("titlePrefix") String titlePrefix,
+                                @Param("limit") int limit);
+
+    // Proyectos propios y colaboraciones de un usuario en una sola consulta, paginada por keyset
+    @Query("SELECT new com.indhive.dto.ProjectSummaryDTO(p.id, p.title, p.description, o.id, o.username) "
+            + "FROM Project p JOIN p.owner o WHERE p.id > :afterId AND (o.id = :userId OR EXISTS ("
+            + "SELECT 1 FROM ProjectCollaborator pc WHERE pc.project.id = p.id AND pc.user.id = :userId)) "
+            + "ORDER BY p.id")
+    List<ProjectSummaryDTO> findUserProjectsPage(@Param("userId") Long userId,
+                                                 @Param("afterId") Long afterId,
+                                                 Pageable pageable);
+
     // Eliminar la relación de un colaborador con un proyecto
     @Modifying
     @Transactional
@@ -0,0 +1,23 @@
+package com.indhive.repository;
+
+import com.indhive.model.RetiredSubject;
+import jakarta.transaction.Transactional;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Date;
+import java.util.List;
+
+public interface RetiredSubjectRepository extends JpaRepository<RetiredSubject, String> {
+
+    // Emails retirados cuyos tokens anteriores aún no han expirado
+    List<RetiredSubject> findByRetiredAtAfter(Date since);
+
+    // Borrado masivo de los retirados antes de la emisión del token más antiguo todavía válido
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM RetiredSubject r WHERE r.retiredAt < :cutoff")
+    int deleteRetiredBefore(@Param("cutoff") Date cutoff);
+}
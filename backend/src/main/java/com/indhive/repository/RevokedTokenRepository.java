@@ -1,7 +1,25 @@
 package com.indhive.repository;
 
 import com.indhive.model.RevokedToken;
+import jakarta.transaction.Transactional;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Date;
+import java.util.List;
 
 public interface RevokedTokenRepository extends JpaRepository<RevokedToken, String> {
+
+    List<RevokedToken> findByExpiresAtAfter(Date now);
+
+    // Revocaciones hechas por otras réplicas desde la última reconciliación
+    List<RevokedToken> findByRevokedAtAfter(Date since);
+
+    // Borrado masivo de revocaciones cuyo token ya habría expirado
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM RevokedToken r WHERE r.expiresAt < :now")
+    int deleteExpired(@Param("now") Date now);
 }
@@ -1,13 +1,56 @@
 package com.indhive.repository;
 
+import com.indhive.dto.UserDTO;
 import com.indhive.model.User;
+
+import jakarta.persistence.QueryHint;
+
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 public interface UserRepository extends JpaRepository<User, Long> {
     Optional<User> findByUsername(String username);
+
+    @EntityGraph(User.WITH_OWNED_PROJECTS)
+    Optional<User> findWithOwnedProjectsById(Long id);
+
+    // Resultado en la caché de consultas hasta la siguiente escritura en la tabla usuarios
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     Optional<User> findByEmail(String email);
+
     boolean existsByUsername(String username);
     boolean existsByEmail(String email); 
+
+    // Comprobación previa de un alta masiva: cuáles de los valores ya están registrados
+    @Query("SELECT u.email FROM User u WHERE u.email IN :emails")
+    List<String> findExistingEmails(@Param("emails") Collection<String> emails);
+
+    @Query("SELECT u.username FROM User u WHERE u.username IN :usernames")
+    List<String> findExistingUsernames(@Param("usernames") Collection<String> usernames);
+
+    // Directorio paginado por keyset, con búsqueda por prefijo de username o email
+    @Query("SELECT new com.indhive.dto.UserDTO(u.id, u.username, u.email, u.roles) FROM User u "
+            + "WHERE u.id > :afterId AND (:prefix IS NULL "
+            + "OR LOWER(u.username) LIKE :prefix ESCAPE '\\' OR LOWER(u.email) LIKE :prefix ESCAPE '\\') "
+            + "ORDER BY u.id")
+    List<UserDTO> findPage(@Param("afterId") Long afterId, @Param("prefix") String prefix, Pageable pageable);
+
+    // Exportación completa: el driver entrega las filas por bloques en lugar de materializarlas todas
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("SELECT new com.indhive.dto.UserDTO(u.id, u.username, u.email, u.roles) FROM User u ORDER BY u.id")
+    Stream<UserDTO> streamAll();
+
+    // Solo los usuarios cuyos tokens antiguos ya no son válidos: [email, tokenVersion]
+    @Query("SELECT u.email, u.tokenVersion FROM User u WHERE u.tokenVersion > 0")
+    List<Object[]> findTokenVersions();
 }
@@ -0,0 +1,27 @@
+package com.indhive.security;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Aplica en memoria (y avisa a las demás réplicas de) un cambio de estado de seguridad solo
+ * cuando la transacción en curso se confirma; si se deshace, nadie ve el cambio.
+ */
+final class AfterCommit {
+
+    private AfterCommit() {}
+
+    // Sin transacción activa no hay nada que esperar: se ejecuta enseguida
+    static void run(Runnable accion) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            accion.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                accion.run();
+            }
+        });
+    }
+}
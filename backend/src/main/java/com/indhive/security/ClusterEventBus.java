@@ -0,0 +1,23 @@
+package com.indhive.security;
+
+import java.util.function.Consumer;
+
+/**
+ * Difusión de cambios de estado de seguridad (revocaciones, versiones de token) entre réplicas.
+ * Cada nodo aplica sus propios cambios en memoria y los publica; el resto los recibe
+ * por los canales a los que se suscribió.
+ * <p>
+ * La entrega es "como mucho una vez": quien dependa de ella debe reconciliarse periódicamente
+ * con la base de datos cuando {@link #isDistributed()} es true.
+ */
+public interface ClusterEventBus {
+
+    void publish(String channel, String payload);
+
+    void subscribe(String channel, Consumer<String> listener);
+
+    /**
+     * Indica si hay más réplicas que escuchan; con false publicar no tiene efecto.
+     */
+    boolean isDistributed();
+}
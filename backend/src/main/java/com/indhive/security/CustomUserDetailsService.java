@@ -1,31 +1,121 @@
 package com.indhive.security;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
 import com.indhive.model.User;
 import com.indhive.repository.UserRepository;
+
+import jakarta.annotation.PostConstruct;
+
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.*;
 import org.springframework.stereotype.Service;
 
-import java.util.Arrays;
+import java.time.Duration;
 import java.util.List;
-import java.util.stream.Collectors;
 
 @Service
-public class CustomUserDetailsService implements UserDetailsService {
+public class CustomUserDetailsService implements UserDetailsService, UserDetailsPasswordService {
+
+        static final String CHANNEL = "user_details";
 
         @Autowired
         private UserRepository userRepository;
 
+        @Autowired
+        private ClusterEventBus eventBus;
+
+        @Value("${security.user-cache.enabled:true}")
+        private boolean cacheEnabled;
+
+        @Value("${security.user-cache.ttl:5m}")
+        private Duration cacheTtl;
+
+        @Value("${security.user-cache.max-size:10000}")
+        private long cacheMaxSize;
+
+        // Caché acotada por tamaño y tiempo, indexada por email en minúsculas
+        private Cache<String, UserDetails> cache;
+
+        @PostConstruct
+        public void init() {
+                cache = Caffeine.newBuilder()
+                                .maximumSize(cacheMaxSize)
+                                .expireAfterWrite(cacheTtl)
+                                .recordStats()
+                                .build();
+                // Otra réplica cambió roles o contraseña: su entrada aquí ya no vale
+                eventBus.subscribe(CHANNEL, cache::invalidate);
+        }
+
         @Override
         public UserDetails loadUserByUsername(String email) throws UsernameNotFoundException {
+                if (!cacheEnabled) {
+                        return loadFromDatabase(email);
+                }
+                // Sin cache.get(key, loader): el loader se ejecuta dentro de un bloqueo de ConcurrentHashMap
+                // y la consulta JDBC dejaría fijado (pinned) el hilo virtual. Dos fallos simultáneos
+                // pueden consultar la base dos veces, lo que es inocuo.
+                String key = email.toLowerCase();
+                UserDetails cached = cache.getIfPresent(key);
+                if (cached == null) {
+                        cached = loadFromDatabase(email);
+                        cache.put(key, cached);
+                }
+                // Se devuelve una copia: Spring Security borra la contraseña del principal tras autenticar
+                return org.springframework.security.core.userdetails.User.withUserDetails(cached).build();
+        }
+
+        /**
+         * Descarta la entrada de un usuario, en esta réplica y en las demás, para que el próximo
+         * acceso lea roles y contraseña actualizados. Dentro de una transacción se descarta al
+         * confirmarla: antes, una carga concurrente volvería a guardar la fila sin el cambio.
+         * Un aviso perdido deja la entrada antigua como mucho hasta security.user-cache.ttl.
+         */
+        public void evict(String email) {
+                if (email == null) {
+                        return;
+                }
+                String key = email.toLowerCase();
+                AfterCommit.run(() -> {
+                        cache.invalidate(key);
+                        eventBus.publish(CHANNEL, key);
+                });
+        }
+
+        /**
+         * Guarda el hash regenerado tras un login correcto cuando el almacenado usa un coste
+         * de BCrypt menor que el configurado (security.password.bcrypt-strength).
+         */
+        @Override
+        public UserDetails updatePassword(UserDetails user, String newPassword) {
+                userRepository.findByEmail(user.getUsername()).ifPresent(usuario -> {
+                        usuario.setPassword(newPassword);
+                        userRepository.save(usuario);
+                });
+                evict(user.getUsername());
+                return org.springframework.security.core.userdetails.User.withUserDetails(user)
+                                .password(newPassword)
+                                .build();
+        }
+
+        public CacheStats getCacheStats() {
+                return cache.stats();
+        }
+
+        public long getCacheSize() {
+                return cache.estimatedSize();
+        }
+
+        private UserDetails loadFromDatabase(String email) {
                 User user = userRepository.findByEmail(email)
                                 .orElseThrow(() -> new UsernameNotFoundException(
                                                 "Usuario no encontrado con email: " + email));
 
-                List<SimpleGrantedAuthority> authorities = Arrays.stream(user.getRoles().split(","))
-                                .map(role -> new SimpleGrantedAuthority(role.trim()))
-                                .collect(Collectors.toList());
+                List<SimpleGrantedAuthority> authorities = Roles.authorities(user.getRoles());
 
                 return new org.springframework.security.core.userdetails.User(
                                 user.getEmail(), // Usar el email como identificador principal
@@ -0,0 +1,59 @@
+package com.indhive.security;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Contadores compartidos en la tabla login_attempts de PostgreSQL.
+ */
+@Component
+@ConditionalOnProperty(name = "security.cluster.mode", havingValue = "postgres")
+public class JdbcLoginAttemptStore implements LoginAttemptStore {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public JdbcLoginAttemptStore(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public void addFailures(Map<String, Integer> failuresByKey, long bucket) {
+        List<Object[]> filas = new ArrayList<>(failuresByKey.size());
+        failuresByKey.forEach((key, failures) -> filas.add(new Object[] { key, bucket, failures }));
+        // Un único lote de upserts: dos réplicas que escriben la misma clave suman sin perder fallos
+        jdbcTemplate.batchUpdate("INSERT INTO login_attempts (attempt_key, bucket, failures) VALUES (?, ?, ?) "
+                + "ON CONFLICT (attempt_key, bucket) DO UPDATE SET failures = login_attempts.failures + EXCLUDED.failures",
+                filas);
+    }
+
+    @Override
+    public Map<String, Integer> findKeysWithAtLeast(long afterBucket, int minFailures, int limit) {
+        Map<String, Integer> claves = new HashMap<>();
+        jdbcTemplate.query("SELECT attempt_key, SUM(failures) FROM login_attempts WHERE bucket > ? "
+                        + "GROUP BY attempt_key HAVING SUM(failures) >= ? LIMIT ?",
+                rs -> {
+                    claves.put(rs.getString(1), rs.getInt(2));
+                },
+                afterBucket, minFailures, limit);
+        return claves;
+    }
+
+    @Override
+    public void reset(Collection<String> keys) {
+        if (keys.isEmpty()) return;
+        jdbcTemplate.batchUpdate("DELETE FROM login_attempts WHERE attempt_key = ?",
+                keys.stream().map(key -> new Object[] { key }).toList());
+    }
+
+    @Override
+    public void purgeUpTo(long bucket) {
+        jdbcTemplate.update("DELETE FROM login_attempts WHERE bucket <= ?", bucket);
+    }
+}
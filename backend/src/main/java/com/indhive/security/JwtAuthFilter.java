@@ -1,26 +1,30 @@
 package com.indhive.security;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 
-import com.indhive.repository.RevokedTokenRepository;
-
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.lang.NonNull;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 
 import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.User;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
+import java.util.Optional;
 
 @Component
 public class JwtAuthFilter extends OncePerRequestFilter {
@@ -34,7 +38,39 @@ public class JwtAuthFilter extends OncePerRequestFilter {
     private CustomUserDetailsService userDetailsService;
 
     @Autowired
-    private RevokedTokenRepository revokedTokenRepository;
+    private TokenRevocationService tokenRevocationService;
+
+    @Autowired
+    private TokenVersionService tokenVersionService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    // Tiempo de cada etapa del filtro (security.jwt.filter{stage}), con histograma para percentiles
+    private Timer revocationTimer;
+    private Timer signatureTimer;
+    private Timer claimsTimer;
+    private Timer userLoadTimer;
+
+    // Si está activo, la autenticación se construye desde los claims firmados sin consultar la base de datos
+    @Value("${jwt.stateless-auth:true}")
+    private boolean statelessAuth;
+
+    @PostConstruct
+    public void initMetrics() {
+        revocationTimer = stageTimer("revocation");
+        signatureTimer = stageTimer("signature");
+        claimsTimer = stageTimer("claims");
+        userLoadTimer = stageTimer("user_load");
+    }
+
+    private Timer stageTimer(String stage) {
+        return Timer.builder("security.jwt.filter")
+                .description("Duración de cada etapa de la autenticación por JWT")
+                .tag("stage", stage)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
 
     @Override
 protected void doFilterInternal(@NonNull HttpServletRequest request,
@@ -42,22 +78,24 @@ protected void doFilterInternal(@NonNull HttpServletRequest request,
                                 @NonNull FilterChain filterChain)
                                 throws ServletException, IOException {
     final String authHeader = request.getHeader("Authorization");
-    String jwt = null;
     String username = null;
+    JwtPrincipal claims = null;
 
     try {
         if (authHeader != null && authHeader.startsWith("Bearer ")) {
-            jwt = authHeader.substring(7);
+            String jwt = authHeader.substring(7);
             logger.debug("Token recibido");
 
-            if (revokedTokenRepository.existsById(jwt)) {
+            if (revocationTimer.record(() -> tokenRevocationService.isRevoked(jwt))) {
                 logger.warn("Token revocado, se ignora autenticación");
                 filterChain.doFilter(request, response);
                 return;
             }
 
-            if (jwtUtils.validateJwtToken(jwt)) {
-                username = jwtUtils.getUserNameFromJwtToken(jwt);
+            Optional<JwtPrincipal> principal = signatureTimer.record(() -> jwtUtils.parse(jwt));
+            if (principal.isPresent()) {
+                claims = principal.get();
+                username = claims.subject();
                 logger.debug("Usuario extraído del token: {}", username);
             } else {
                 logger.warn("Token inválido");
@@ -67,8 +105,17 @@ protected void doFilterInternal(@NonNull HttpServletRequest request,
         }
 
         if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-            logger.debug("Cargando usuario desde base de datos...");
-            UserDetails userDetails = userDetailsService.loadUserByUsername(username);
+            UserDetails userDetails;
+            Timer.Sample sample = Timer.start(meterRegistry);
+            if (statelessAuth && claims.roles() != null
+                    && !tokenVersionService.isStale(username, claims.tokenVersion())) {
+                userDetails = new User(username, "", claims.authorities());
+                sample.stop(claimsTimer);
+            } else {
+                logger.debug("Cargando usuario desde base de datos...");
+                userDetails = userDetailsService.loadUserByUsername(username);
+                sample.stop(userLoadTimer);
+            }
 
             UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(
                 userDetails, null, userDetails.getAuthorities());
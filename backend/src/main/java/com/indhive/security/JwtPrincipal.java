@@ -0,0 +1,17 @@
+package com.indhive.security;
+
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Datos ya validados de un JWT: se obtienen en una sola pasada de parseo
+ * y firma para no tener que volver a leer el token.
+ */
+public record JwtPrincipal(String subject, String roles, int tokenVersion, Date expiration) {
+
+    public List<SimpleGrantedAuthority> authorities() {
+        return Roles.authorities(roles);
+    }
+}
@@ -3,40 +3,64 @@ package com.indhive.security;
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.security.Keys;
 import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 import java.security.Key;
 import java.time.Duration;
-import java.util.Arrays;
 import java.util.Date;
+import java.util.Map;
 import java.util.Optional;
-import java.util.stream.Collectors;
+import java.util.concurrent.atomic.LongAdder;
 
 @Component
 public class JwtUtils {
 
+    private static final Logger logger = LoggerFactory.getLogger(JwtUtils.class);
+
+    // Validez de cada token desde su emisión
+    static final Duration TOKEN_TTL = Duration.ofHours(24);
+
     @Value("${jwt.secret}")
     private String jwtSecret;
 
     private Key signingKey;
 
+    // El parser es inmutable y thread-safe: se construye una sola vez
+    private JwtParser jwtParser;
+
+    // Contadores de tokens rechazados por motivo
+    private final LongAdder expiredTokens = new LongAdder();
+    private final LongAdder unsupportedTokens = new LongAdder();
+    private final LongAdder malformedTokens = new LongAdder();
+    private final LongAdder invalidTokens = new LongAdder();
+
     @PostConstruct
     public void init() {
         if (jwtSecret == null || jwtSecret.length() < 32) {
             throw new IllegalArgumentException("La clave secreta JWT debe tener al menos 32 caracteres.");
         }
         this.signingKey = Keys.hmacShaKeyFor(jwtSecret.getBytes());
+        this.jwtParser = Jwts.parserBuilder()
+                .setSigningKey(signingKey)
+                .build();
     }
 
     public String generateJwtToken(String email, String roles) {
-        String rolesWithPrefix = normalizeRoles(roles);
+        return generateJwtToken(email, roles, 0);
+    }
+
+    public String generateJwtToken(String email, String roles, int tokenVersion) {
+        String rolesWithPrefix = Roles.normalize(roles);
 
         return Jwts.builder()
             .setSubject(email) // ahora usamos el email como identificador
             .claim("roles", rolesWithPrefix)
+            .claim("ver", tokenVersion)
             .setIssuedAt(new Date())
-            .setExpiration(new Date(System.currentTimeMillis() + Duration.ofHours(24).toMillis()))
+            .setExpiration(new Date(System.currentTimeMillis() + TOKEN_TTL.toMillis()))
             .signWith(signingKey, SignatureAlgorithm.HS512)
             .compact();
     }  
@@ -49,6 +73,10 @@ public class JwtUtils {
         return parseClaims(token).get("roles", String.class);
     }
 
+    public Date getExpirationFromJwtToken(String token) {
+        return parseClaims(token).getExpiration();
+    }
+
     public Optional<String> safeGetUserName(String token) {
         try {
             return Optional.of(getUserNameFromJwtToken(token));
@@ -57,34 +85,48 @@ public class JwtUtils {
         }
     }
 
-    public boolean validateJwtToken(String authToken) {
+    /**
+     * Valida firma y expiración y devuelve sujeto, roles y expiración en una sola pasada.
+     * Los tokens rechazados se contabilizan por motivo en lugar de imprimirse.
+     */
+    public Optional<JwtPrincipal> parse(String token) {
         try {
-            parseClaims(authToken);
-            return true;
+            Claims claims = parseClaims(token);
+            Integer version = claims.get("ver", Integer.class);
+            return Optional.of(new JwtPrincipal(
+                    claims.getSubject(),
+                    claims.get("roles", String.class),
+                    version != null ? version : 0,
+                    claims.getExpiration()));
         } catch (ExpiredJwtException e) {
-            System.out.println("Token expirado: " + e.getMessage());
+            expiredTokens.increment();
+            logger.debug("Token expirado: {}", e.getMessage());
         } catch (UnsupportedJwtException e) {
-            System.out.println("Token no soportado: " + e.getMessage());
+            unsupportedTokens.increment();
+            logger.debug("Token no soportado: {}", e.getMessage());
         } catch (MalformedJwtException e) {
-            System.out.println("Token mal formado: " + e.getMessage());
-        } catch (SecurityException | IllegalArgumentException e) {
-            System.out.println("Token inválido: " + e.getMessage());
+            malformedTokens.increment();
+            logger.debug("Token mal formado: {}", e.getMessage());
+        } catch (JwtException | IllegalArgumentException e) {
+            invalidTokens.increment();
+            logger.debug("Token inválido: {}", e.getMessage());
         }
-        return false;
+        return Optional.empty();
     }
 
-    private Claims parseClaims(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(signingKey)
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
+    public boolean validateJwtToken(String authToken) {
+        return parse(authToken).isPresent();
+    }
+
+    public Map<String, Long> getRejectedTokenCounts() {
+        return Map.of(
+                "expired", expiredTokens.sum(),
+                "unsupported", unsupportedTokens.sum(),
+                "malformed", malformedTokens.sum(),
+                "invalid", invalidTokens.sum());
     }
 
-    private String normalizeRoles(String roles) {
-        return Arrays.stream(roles.split(","))
-                .map(String::trim)
-                .map(role -> role.startsWith("ROLE_") ? role : "ROLE_" + role)
-                .collect(Collectors.joining(","));
+    private Claims parseClaims(String token) {
+        return jwtParser.parseClaimsJws(token).getBody();
     }
 }
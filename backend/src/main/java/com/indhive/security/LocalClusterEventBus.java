@@ -0,0 +1,29 @@
+package com.indhive.security;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.function.Consumer;
+
+/**
+ * Instancia única (security.cluster.mode=local): no hay otras réplicas a las que avisar.
+ */
+@Component
+@ConditionalOnProperty(name = "security.cluster.mode", havingValue = "local", matchIfMissing = true)
+public class LocalClusterEventBus implements ClusterEventBus {
+
+    @Override
+    public void publish(String channel, String payload) {
+        // El cambio ya se aplicó en este nodo
+    }
+
+    @Override
+    public void subscribe(String channel, Consumer<String> listener) {
+        // Nunca llegan mensajes de otros nodos
+    }
+
+    @Override
+    public boolean isDistributed() {
+        return false;
+    }
+}
@@ -1,30 +1,281 @@
 package com.indhive.security;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Ticker;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
+import java.time.Clock;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
 
+/**
+ * Limita los intentos de login fallidos por cuenta y por IP con una ventana deslizante.
+ * <p>
+ * Cada clave tiene un contador de tamaño fijo dividido en {@value #BUCKETS} tramos que se
+ * incrementa sin bloqueos (CAS). Las claves se guardan en cachés Caffeine acotadas en tamaño
+ * y que expiran tras una ventana sin actividad, así que la memoria no crece con el tráfico
+ * de un ataque y los bloqueos se levantan solos.
+ * <p>
+ * Con varias réplicas (security.cluster.mode=postgres) hay además un {@link LoginAttemptStore}
+ * compartido: los fallos se acumulan en memoria y cada security.cluster.sync-interval-ms se
+ * vuelcan en bloque y se descargan las claves bloqueadas en todo el clúster. Un nodo aplica así
+ * los bloqueos de los demás con, como mucho, ese retraso, sin consultas en el camino del login.
+ */
 @Service
 public class LoginAttemptService {
 
-    private final int MAX_ATTEMPTS = 5;
-    private final Map<String, Integer> attemptsCache = new ConcurrentHashMap<>();
+    private static final Logger logger = LoggerFactory.getLogger(LoginAttemptService.class);
+
+    private static final int BUCKETS = 10;
+
+    static final String ACCOUNT_PREFIX = "acct:";
+    static final String IP_PREFIX = "ip:";
+
+    // Cada tramo guarda su número de tramo en los bits altos y los fallos en los 20 bajos
+    private static final int COUNT_BITS = 20;
+    private static final long COUNT_MASK = (1L << COUNT_BITS) - 1;
+
+    private final Ticker ticker;
+    // Los tramos se cuentan desde el arranque: System.nanoTime() puede ser negativo
+    private final long origin;
+    private final int maxPerAccount;
+    private final int maxPerIp;
+    private final long maxKeys;
+    private final long bucketNanos;
+
+    private final Cache<String, SlidingWindow> accounts;
+    private final Cache<String, SlidingWindow> ips;
+
+    // Estado compartido entre réplicas; null con una sola instancia
+    private final LoginAttemptStore store;
+    private final Clock clock;
+    private final long bucketMillis;
+    private final Map<String, AtomicInteger> pendingFailures = new ConcurrentHashMap<>();
+    private final Set<String> pendingResets = ConcurrentHashMap.newKeySet();
+    private volatile Set<String> clusterBlocked = Set.of();
+    private long lastPurgedBucket;
+
+    // Intentos rechazados por bloqueo, según el límite que saltó (métrica security.login.blocked)
+    private final LongAdder accountBlocks = new LongAdder();
+    private final LongAdder ipBlocks = new LongAdder();
+    private final LongAdder clusterBlocks = new LongAdder();
+
+    @Autowired
+    public LoginAttemptService(@Value("${security.login-attempts.max-per-account:5}") int maxPerAccount,
+                               @Value("${security.login-attempts.max-per-ip:20}") int maxPerIp,
+                               @Value("${security.login-attempts.window:15m}") Duration window,
+                               @Value("${security.login-attempts.max-keys:100000}") long maxKeys,
+                               ObjectProvider<LoginAttemptStore> store) {
+        this(maxPerAccount, maxPerIp, window, maxKeys, Ticker.systemTicker(), store.getIfAvailable(), Clock.systemUTC());
+    }
+
+    LoginAttemptService(int maxPerAccount, int maxPerIp, Duration window, long maxKeys, Ticker ticker) {
+        this(maxPerAccount, maxPerIp, window, maxKeys, ticker, null, Clock.systemUTC());
+    }
+
+    LoginAttemptService(int maxPerAccount, int maxPerIp, Duration window, long maxKeys, Ticker ticker,
+                        LoginAttemptStore store, Clock clock) {
+        this.ticker = ticker;
+        this.origin = ticker.read();
+        this.maxPerAccount = maxPerAccount;
+        this.maxPerIp = maxPerIp;
+        this.maxKeys = maxKeys;
+        this.bucketNanos = Math.max(1, window.toNanos() / BUCKETS);
+        this.accounts = newCache(window, maxKeys);
+        this.ips = newCache(window, maxKeys);
+        this.store = store;
+        this.clock = clock;
+        // Los tramos compartidos se numeran con el reloj de pared, igual en todas las réplicas
+        this.bucketMillis = Math.max(1, window.toMillis() / BUCKETS);
+    }
+
+    private Cache<String, SlidingWindow> newCache(Duration window, long maxKeys) {
+        return Caffeine.newBuilder()
+                .maximumSize(maxKeys)
+                .expireAfterAccess(window)
+                .ticker(ticker)
+                .build();
+    }
+
+    public void loginFailed(String email, String ip) {
+        long bucket = currentBucket();
+        accounts.get(accountKey(email), k -> new SlidingWindow()).increment(bucket);
+        if (ip != null) {
+            ips.get(ip, k -> new SlidingWindow()).increment(bucket);
+        }
+        if (store != null) {
+            pendiente(ACCOUNT_PREFIX + accountKey(email));
+            if (ip != null) {
+                pendiente(IP_PREFIX + ip);
+            }
+        }
+    }
+
+    private void pendiente(String key) {
+        AtomicInteger contador = pendingFailures.get(key);
+        if (contador == null) {
+            // Acotado igual que las cachés: bajo ataque se descartan claves nuevas hasta la próxima sincronización
+            if (pendingFailures.size() >= maxKeys) {
+                return;
+            }
+            contador = pendingFailures.computeIfAbsent(key, k -> new AtomicInteger());
+        }
+        contador.incrementAndGet();
+    }
+
+    // Solo se olvida la cuenta: un acierto desde una IP no debe borrar los fallos de otras cuentas
+    public void loginSucceeded(String email) {
+        accounts.invalidate(accountKey(email));
+        if (store != null) {
+            String key = ACCOUNT_PREFIX + accountKey(email);
+            pendingFailures.remove(key);
+            pendingResets.add(key);
+            Set<String> bloqueados = clusterBlocked;
+            if (bloqueados.contains(key)) {
+                clusterBlocked = bloqueados.stream().filter(k -> !k.equals(key)).collect(Collectors.toUnmodifiableSet());
+            }
+        }
+    }
+
+    public boolean isBlocked(String email, String ip) {
+        if (getAttempts(email) >= maxPerAccount) {
+            accountBlocks.increment();
+            return true;
+        }
+        if (ip != null && count(ips.getIfPresent(ip)) >= maxPerIp) {
+            ipBlocks.increment();
+            return true;
+        }
+        Set<String> bloqueados = clusterBlocked;
+        if (!bloqueados.isEmpty() && (bloqueados.contains(ACCOUNT_PREFIX + accountKey(email))
+                || (ip != null && bloqueados.contains(IP_PREFIX + ip)))) {
+            clusterBlocks.increment();
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Vuelca al almacén compartido los fallos y aciertos acumulados desde la última vez y
+     * descarga las claves que superan su límite en todo el clúster. Sin almacén no hace nada.
+     * Si la base de datos no responde se mantienen los últimos bloqueos conocidos y los límites locales.
+     */
+    @Scheduled(fixedDelayString = "${security.cluster.sync-interval-ms:1000}")
+    public void sincronizar() {
+        if (store == null) {
+            return;
+        }
+        long bucket = clock.millis() / bucketMillis;
+        try {
+            if (!pendingResets.isEmpty()) {
+                List<String> resets = new ArrayList<>(pendingResets);
+                pendingResets.removeAll(resets);
+                store.reset(resets);
+            }
+
+            Map<String, Integer> fallos = new HashMap<>();
+            for (String key : new ArrayList<>(pendingFailures.keySet())) {
+                AtomicInteger contador = pendingFailures.remove(key);
+                if (contador != null && contador.get() > 0) {
+                    fallos.put(key, contador.get());
+                }
+            }
+            if (!fallos.isEmpty()) {
+                store.addFailures(fallos, bucket);
+            }
+
+            clusterBlocked = store.findKeysWithAtLeast(bucket - BUCKETS, Math.min(maxPerAccount, maxPerIp), (int) maxKeys)
+                    .entrySet().stream()
+                    .filter(e -> e.getValue() >= (e.getKey().startsWith(IP_PREFIX) ? maxPerIp : maxPerAccount))
+                    .map(Map.Entry::getKey)
+                    .collect(Collectors.toUnmodifiableSet());
+
+            if (bucket > lastPurgedBucket) {
+                store.purgeUpTo(bucket - BUCKETS);
+                lastPurgedBucket = bucket;
+            }
+        } catch (DataAccessException e) {
+            logger.warn("No se pudieron sincronizar los intentos de login con el clúster: {}", e.getMessage());
+        }
+    }
 
-    public void loginFailed(String username) {
-        int attempts = attemptsCache.getOrDefault(username, 0);
-        attemptsCache.put(username, attempts + 1);
+    public int getAttempts(String email) {
+        return count(accounts.getIfPresent(accountKey(email)));
     }
 
-    public void loginSucceeded(String username) {
-        attemptsCache.remove(username);
+    public Map<String, Long> getBlockedCounts() {
+        return Map.of(
+                "account", accountBlocks.sum(),
+                "ip", ipBlocks.sum(),
+                "cluster", clusterBlocks.sum());
     }
 
-    public boolean isBlocked(String username) {
-        return attemptsCache.getOrDefault(username, 0) >= MAX_ATTEMPTS;
+    public long getTrackedKeys() {
+        accounts.cleanUp();
+        ips.cleanUp();
+        return accounts.estimatedSize() + ips.estimatedSize();
     }
 
-    public int getAttempts(String username) {
-        return attemptsCache.getOrDefault(username, 0);
+    private int count(SlidingWindow window) {
+        return window == null ? 0 : window.sum(currentBucket());
+    }
+
+    private long currentBucket() {
+        return (ticker.read() - origin) / bucketNanos;
+    }
+
+    private static String accountKey(String email) {
+        return email == null ? "" : email.toLowerCase();
+    }
+
+    /**
+     * Contador de fallos en los últimos {@value #BUCKETS} tramos. Un tramo de una vuelta
+     * anterior se reinicia al escribir en él y se ignora al sumar.
+     */
+    static final class SlidingWindow {
+
+        private final AtomicLongArray slots = new AtomicLongArray(BUCKETS);
+
+        void increment(long bucket) {
+            int i = (int) (bucket % BUCKETS);
+            while (true) {
+                long actual = slots.get(i);
+                long siguiente = (actual >>> COUNT_BITS) == bucket
+                        ? Math.min(actual + 1, (bucket << COUNT_BITS) | COUNT_MASK)
+                        : (bucket << COUNT_BITS) | 1;
+                if (slots.compareAndSet(i, actual, siguiente)) {
+                    return;
+                }
+            }
+        }
+
+        int sum(long bucket) {
+            int total = 0;
+            for (int i = 0; i < BUCKETS; i++) {
+                long slot = slots.get(i);
+                if (bucket - (slot >>> COUNT_BITS) < BUCKETS) {
+                    total += (int) (slot & COUNT_MASK);
+                }
+            }
+            return total;
+        }
     }
 }
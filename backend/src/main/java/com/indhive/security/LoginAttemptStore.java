@@ -0,0 +1,27 @@
+package com.indhive.security;
+
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * Contadores de fallos de login compartidos entre réplicas, agrupados por tramos de tiempo
+ * numerados desde epoch. {@link LoginAttemptService} acumula los fallos en memoria y los
+ * sincroniza en bloque, así que la implementación no está en el camino de cada petición.
+ */
+public interface LoginAttemptStore {
+
+    /**
+     * Suma los fallos de cada clave al tramo indicado.
+     */
+    void addFailures(Map<String, Integer> failuresByKey, long bucket);
+
+    /**
+     * Claves con al menos minFailures fallos en los tramos posteriores a afterBucket,
+     * como mucho limit de ellas.
+     */
+    Map<String, Integer> findKeysWithAtLeast(long afterBucket, int minFailures, int limit);
+
+    void reset(Collection<String> keys);
+
+    void purgeUpTo(long bucket);
+}
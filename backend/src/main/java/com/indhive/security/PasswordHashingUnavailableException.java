@@ -0,0 +1,25 @@
+package com.indhive.security;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+/**
+ * El pool de hashing de contraseñas está saturado: se responde 503 con Retry-After
+ * en lugar de encolar la petición indefinidamente.
+ */
+public class PasswordHashingUnavailableException extends ResponseStatusException {
+
+    static final String RETRY_AFTER_SECONDS = "1";
+
+    public PasswordHashingUnavailableException(String reason) {
+        super(HttpStatus.SERVICE_UNAVAILABLE, reason);
+    }
+
+    @Override
+    public HttpHeaders getHeaders() {
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(HttpHeaders.RETRY_AFTER, RETRY_AFTER_SECONDS);
+        return headers;
+    }
+}
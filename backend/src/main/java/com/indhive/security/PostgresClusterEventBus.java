@@ -0,0 +1,143 @@
+package com.indhive.security;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * Difusión entre réplicas con LISTEN/NOTIFY de PostgreSQL, sin infraestructura adicional.
+ * <p>
+ * Publicar es un pg_notify por la conexión del pool (se entrega al confirmar la transacción
+ * en curso, si la hay). Para escuchar se mantiene una conexión propia fuera de Hikari: una
+ * conexión del pool retenida indefinidamente contaría como fuga. Si se cae, se reconecta;
+ * los avisos perdidos mientras tanto los recupera la reconciliación periódica de cada servicio.
+ */
+@Component
+@ConditionalOnProperty(name = "security.cluster.mode", havingValue = "postgres")
+public class PostgresClusterEventBus implements ClusterEventBus {
+
+    private static final Logger logger = LoggerFactory.getLogger(PostgresClusterEventBus.class);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final DataSourceProperties dataSourceProperties;
+    private final Map<String, List<Consumer<String>>> listeners = new ConcurrentHashMap<>();
+
+    @Value("${security.cluster.listen-poll:1s}")
+    private Duration pollTimeout;
+
+    @Value("${security.cluster.reconnect-delay:5s}")
+    private Duration reconnectDelay;
+
+    private volatile boolean running = true;
+    private Thread listenerThread;
+
+    public PostgresClusterEventBus(JdbcTemplate jdbcTemplate, DataSourceProperties dataSourceProperties) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.dataSourceProperties = dataSourceProperties;
+    }
+
+    @PostConstruct
+    public void start() {
+        listenerThread = new Thread(this::escuchar, "cluster-listener");
+        listenerThread.setDaemon(true);
+        listenerThread.start();
+    }
+
+    @Override
+    public void publish(String channel, String payload) {
+        jdbcTemplate.queryForObject("SELECT pg_notify(?, ?)", String.class, channel, payload);
+    }
+
+    @Override
+    public void subscribe(String channel, Consumer<String> listener) {
+        // Los canales se escuchan al (re)conectar: los servicios se suscriben al arrancar,
+        // antes de que la conexión de escucha termine de abrirse
+        listeners.computeIfAbsent(channel, c -> new CopyOnWriteArrayList<>()).add(listener);
+    }
+
+    @Override
+    public boolean isDistributed() {
+        return true;
+    }
+
+    private void escuchar() {
+        while (running) {
+            try (Connection connection = DriverManager.getConnection(dataSourceProperties.determineUrl(),
+                    dataSourceProperties.determineUsername(), dataSourceProperties.determinePassword())) {
+                PGConnection pgConnection = connection.unwrap(PGConnection.class);
+                Set<String> escuchados = new HashSet<>();
+                logger.info("Escuchando eventos del clúster");
+                while (running) {
+                    for (String channel : listeners.keySet()) {
+                        if (escuchados.add(channel)) {
+                            try (Statement statement = connection.createStatement()) {
+                                statement.execute("LISTEN \"" + channel.replace("\"", "") + "\"");
+                            }
+                        }
+                    }
+                    PGNotification[] notificaciones = pgConnection.getNotifications((int) pollTimeout.toMillis());
+                    if (notificaciones != null) {
+                        for (PGNotification notificacion : notificaciones) {
+                            entregar(notificacion.getName(), notificacion.getParameter());
+                        }
+                    }
+                }
+            } catch (SQLException e) {
+                if (running) {
+                    logger.warn("Conexión de escucha del clúster perdida, reintentando en {}: {}",
+                            reconnectDelay, e.getMessage());
+                    dormir();
+                }
+            }
+        }
+    }
+
+    private void entregar(String channel, String payload) {
+        for (Consumer<String> listener : listeners.getOrDefault(channel, List.of())) {
+            try {
+                listener.accept(payload);
+            } catch (RuntimeException e) {
+                logger.error("Error procesando el evento {} del canal {}", payload, channel, e);
+            }
+        }
+    }
+
+    private void dormir() {
+        try {
+            Thread.sleep(reconnectDelay.toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            running = false;
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        if (listenerThread != null) {
+            listenerThread.interrupt();
+        }
+    }
+}
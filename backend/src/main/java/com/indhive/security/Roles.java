@@ -0,0 +1,73 @@
+package com.indhive.security;
+
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Tratamiento de la lista de roles separada por comas que se guarda en User.roles y en el claim "roles".
+ */
+public final class Roles {
+
+    private static final String PREFIX = "ROLE_";
+
+    // Hay pocas combinaciones distintas de roles; se comparten las listas de authorities ya construidas
+    private static final int MAX_CACHED = 256;
+    private static final Map<String, List<SimpleGrantedAuthority>> AUTHORITIES = new ConcurrentHashMap<>();
+
+    private Roles() {}
+
+    /**
+     * Recorta cada rol y le antepone ROLE_ si no lo tiene ("USER, CREATOR" -> "ROLE_USER,ROLE_CREATOR").
+     * Los roles que vienen de la base de datos o del token ya están normalizados y se devuelven sin copiar.
+     */
+    public static String normalize(String roles) {
+        if (roles == null || isNormalized(roles)) {
+            return roles;
+        }
+        return Arrays.stream(roles.split(","))
+                .map(String::trim)
+                .map(role -> role.startsWith(PREFIX) ? role : PREFIX + role)
+                .collect(Collectors.joining(","));
+    }
+
+    // Cada rol empieza por ROLE_ justo tras la coma y no tiene espacios alrededor
+    private static boolean isNormalized(String roles) {
+        int start = 0;
+        while (true) {
+            if (!roles.startsWith(PREFIX, start)) {
+                return false;
+            }
+            int end = roles.indexOf(',', start);
+            int last = (end < 0 ? roles.length() : end) - 1;
+            if (Character.isWhitespace(roles.charAt(last))) {
+                return false;
+            }
+            if (end < 0) {
+                return true;
+            }
+            start = end + 1;
+        }
+    }
+
+    /**
+     * Authorities de Spring Security para una lista de roles ya normalizada. La lista devuelta es inmutable.
+     */
+    public static List<SimpleGrantedAuthority> authorities(String roles) {
+        List<SimpleGrantedAuthority> cached = AUTHORITIES.get(roles);
+        if (cached != null) {
+            return cached;
+        }
+        List<SimpleGrantedAuthority> authorities = Arrays.stream(roles.split(","))
+                .map(role -> new SimpleGrantedAuthority(role.trim()))
+                .toList();
+        if (AUTHORITIES.size() < MAX_CACHED) {
+            AUTHORITIES.putIfAbsent(roles, authorities);
+        }
+        return authorities;
+    }
+}
@@ -1,7 +1,13 @@
 package com.indhive.security;
 
+import com.indhive.dto.CursorPage;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpHeaders;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
 import org.springframework.security.config.annotation.authentication.configuration.AuthenticationConfiguration;
@@ -16,6 +22,7 @@ import org.springframework.web.cors.CorsConfiguration;
 import org.springframework.web.cors.CorsConfigurationSource;
 import org.springframework.web.cors.UrlBasedCorsConfigurationSource;
 
+import java.time.Duration;
 import java.util.List;
 
 @Configuration
@@ -39,16 +46,66 @@ public class SecurityConfig {
         this.customAccessDeniedHandler = customAccessDeniedHandler;
     }
 
+    /**
+     * BCrypt con coste configurable, ejecutado en un pool acotado (ver {@link BoundedPasswordEncoder}).
+     * Con security.password.threads=0 se usa la mitad de los núcleos.
+     */
+    @Bean(destroyMethod = "shutdown")
+    public BoundedPasswordEncoder passwordEncoder(
+            @Value("${security.password.bcrypt-strength:10}") int strength,
+            @Value("${security.password.threads:0}") int threads,
+            @Value("${security.password.queue-capacity:64}") int queueCapacity,
+            @Value("${security.password.timeout:5s}") Duration timeout) {
+        int hilos = threads > 0 ? threads : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        return new BoundedPasswordEncoder(new BCryptPasswordEncoder(strength), hilos, queueCapacity, timeout);
+    }
+
+    @Bean
+    public MeterBinder passwordHashingMetrics(BoundedPasswordEncoder passwordEncoder) {
+        return registry -> {
+            Gauge.builder("security.password.hashing.queued", passwordEncoder, BoundedPasswordEncoder::getQueueSize)
+                    .description("Operaciones de hashing esperando en la cola")
+                    .register(registry);
+            Gauge.builder("security.password.hashing.active", passwordEncoder, BoundedPasswordEncoder::getActiveCount)
+                    .description("Operaciones de hashing en curso")
+                    .register(registry);
+            FunctionCounter.builder("security.password.hashing.rejected", passwordEncoder,
+                            BoundedPasswordEncoder::getRejectedCount)
+                    .description("Operaciones rechazadas con 503 por cola llena o tiempo agotado")
+                    .register(registry);
+        };
+    }
+
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public MeterBinder loginSecurityMetrics(LoginAttemptService loginAttemptService, JwtUtils jwtUtils) {
+        return registry -> {
+            for (String scope : loginAttemptService.getBlockedCounts().keySet()) {
+                FunctionCounter.builder("security.login.blocked", loginAttemptService,
+                                service -> service.getBlockedCounts().get(scope))
+                        .description("Logins rechazados por superar el límite de intentos fallidos")
+                        .tag("scope", scope)
+                        .register(registry);
+            }
+            Gauge.builder("security.login.tracked.keys", loginAttemptService, LoginAttemptService::getTrackedKeys)
+                    .description("Cuentas e IPs con intentos fallidos recientes en memoria")
+                    .register(registry);
+            for (String reason : jwtUtils.getRejectedTokenCounts().keySet()) {
+                FunctionCounter.builder("security.jwt.rejected", jwtUtils,
+                                utils -> utils.getRejectedTokenCounts().get(reason))
+                        .description("Tokens rechazados al validar la firma o los claims")
+                        .tag("reason", reason)
+                        .register(registry);
+            }
+        };
     }
 
     @Bean
-    public DaoAuthenticationProvider authenticationProvider() {
+    public DaoAuthenticationProvider authenticationProvider(PasswordEncoder passwordEncoder) {
         DaoAuthenticationProvider provider = new DaoAuthenticationProvider();
         provider.setUserDetailsService(userDetailsService);
-        provider.setPasswordEncoder(passwordEncoder());
+        provider.setPasswordEncoder(passwordEncoder);
+        // Si el coste configurado sube, el hash se regenera en el siguiente login correcto
+        provider.setUserDetailsPasswordService(userDetailsService);
         return provider;
     }
 
@@ -63,6 +120,7 @@ public class SecurityConfig {
         config.setAllowedOrigins(List.of("http://localhost:3000", "https://indhive.com"));
         config.setAllowedMethods(List.of("GET", "POST", "PUT", "DELETE", "OPTIONS"));
         config.setAllowedHeaders(List.of("*"));
+        config.setExposedHeaders(List.of(CursorPage.NEXT_CURSOR_HEADER, HttpHeaders.ETAG));
         config.setAllowCredentials(true);
 
         UrlBasedCorsConfigurationSource source = new UrlBasedCorsConfigurationSource();
@@ -71,7 +129,9 @@ public class SecurityConfig {
     }
 
     @Bean
-    public SecurityFilterChain filterChain(HttpSecurity http) throws Exception {
+    public SecurityFilterChain filterChain(HttpSecurity http, DaoAuthenticationProvider authenticationProvider,
+                                           @Value("${management.server.port:}") Integer managementPort)
+            throws Exception {
         http
                 .cors(cors -> cors.configurationSource(corsConfigurationSource()))
                 .csrf(csrf -> csrf.disable())
@@ -83,13 +143,20 @@ public class SecurityConfig {
                                 "/api/auth/reset-password",
                                 "/swagger-ui.html",
                                 "/swagger-ui/**",
-                                "/v3/api-docs/**")
+                                "/v3/api-docs/**",
+                                "/actuator/health")
+                        .permitAll()
+                        // Prometheus lee sin token, pero solo en el puerto interno de gestión
+                        .requestMatchers(request -> managementPort != null
+                                && request.getLocalPort() == managementPort
+                                && request.getRequestURI().equals("/actuator/prometheus"))
                         .permitAll()
+                        .requestMatchers("/actuator/**").hasRole("ADMIN")
                         .anyRequest().authenticated())
                 .exceptionHandling(ex -> ex
                         .authenticationEntryPoint(customAuthEntryPoint)
                         .accessDeniedHandler(customAccessDeniedHandler))
-                .authenticationProvider(authenticationProvider())
+                .authenticationProvider(authenticationProvider)
                 .addFilterBefore(jwtAuthFilter, UsernamePasswordAuthenticationFilter.class);
 
         return http.build();
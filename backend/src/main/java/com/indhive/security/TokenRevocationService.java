@@ -0,0 +1,142 @@
+package com.indhive.security;
+
+import com.indhive.model.RevokedToken;
+import com.indhive.repository.RevokedTokenRepository;
+
+import io.jsonwebtoken.JwtException;
+import jakarta.annotation.PostConstruct;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.Date;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Mantiene en memoria los tokens revocados (como hash SHA-256) para que el filtro JWT
+ * no tenga que consultar la base de datos en cada petición.
+ * La tabla de tokens revocados sigue siendo la fuente de verdad: solo se consulta
+ * cuando el hash aparece en memoria. Las revocaciones se purgan cuando el token
+ * habría expirado de todas formas.
+ * <p>
+ * Con varias réplicas cada revocación se publica en {@link ClusterEventBus}; además, cada
+ * security.cluster.reconcile-interval-ms se leen las revocaciones recientes por si se perdió algún aviso.
+ */
+@Service
+public class TokenRevocationService {
+
+    private static final Logger logger = LoggerFactory.getLogger(TokenRevocationService.class);
+
+    static final String CHANNEL = "token_revoked";
+
+    // Margen al reconciliar, para revocaciones confirmadas poco después de fijar revokedAt o relojes desfasados
+    private static final Duration RECONCILE_MARGIN = Duration.ofMinutes(1);
+
+    private final RevokedTokenRepository revokedTokenRepository;
+    private final JwtUtils jwtUtils;
+    private final ClusterEventBus eventBus;
+
+    // hash del token -> expiración original (epoch ms)
+    private final Map<String, Long> revokedDigests = new ConcurrentHashMap<>();
+
+    private volatile Date lastReconcile;
+
+    public TokenRevocationService(RevokedTokenRepository revokedTokenRepository, JwtUtils jwtUtils,
+                                  ClusterEventBus eventBus) {
+        this.revokedTokenRepository = revokedTokenRepository;
+        this.jwtUtils = jwtUtils;
+        this.eventBus = eventBus;
+    }
+
+    @PostConstruct
+    public void init() {
+        eventBus.subscribe(CHANNEL, this::onRemoteRevocation);
+        lastReconcile = new Date();
+        revokedTokenRepository.findByExpiresAtAfter(lastReconcile)
+                .forEach(revoked -> revokedDigests.put(revoked.getTokenHash(), revoked.getExpiresAt().getTime()));
+        logger.info("Tokens revocados cargados en memoria: {}", revokedDigests.size());
+    }
+
+    // Mensaje "hash:expiración" publicado por otra réplica
+    void onRemoteRevocation(String payload) {
+        int separador = payload.indexOf(':');
+        if (separador <= 0) {
+            logger.warn("Aviso de revocación con formato inválido: {}", payload);
+            return;
+        }
+        revokedDigests.put(payload.substring(0, separador), Long.parseLong(payload.substring(separador + 1)));
+    }
+
+    /**
+     * Incorpora las revocaciones hechas por otras réplicas cuyo aviso no llegó
+     * (p. ej. durante una reconexión). Con una sola instancia no hace nada.
+     */
+    @Scheduled(fixedDelayString = "${security.cluster.reconcile-interval-ms:30000}")
+    public void reconcile() {
+        if (!eventBus.isDistributed()) {
+            return;
+        }
+        Date now = new Date();
+        Date since = new Date(lastReconcile.getTime() - RECONCILE_MARGIN.toMillis());
+        revokedTokenRepository.findByRevokedAtAfter(since).forEach(revoked ->
+                revokedDigests.putIfAbsent(revoked.getTokenHash(), revoked.getExpiresAt().getTime()));
+        lastReconcile = now;
+    }
+
+    public boolean isRevoked(String token) {
+        String hash = digest(token);
+        if (!revokedDigests.containsKey(hash)) {
+            return false;
+        }
+        // Posible acierto: se confirma contra la base de datos
+        return revokedTokenRepository.existsById(hash);
+    }
+
+    public void revoke(String token) {
+        Date expiresAt;
+        try {
+            expiresAt = jwtUtils.getExpirationFromJwtToken(token);
+        } catch (JwtException | IllegalArgumentException e) {
+            // Un token inválido o expirado ya no autentica, no hace falta guardarlo
+            return;
+        }
+
+        String hash = digest(token);
+        if (!revokedTokenRepository.existsById(hash)) {
+            revokedTokenRepository.save(new RevokedToken(hash, new Date(), expiresAt));
+        }
+        revokedDigests.put(hash, expiresAt.getTime());
+        eventBus.publish(CHANNEL, hash + ":" + expiresAt.getTime());
+    }
+
+    /**
+     * Elimina las revocaciones de tokens que ya expiraron, tanto en base de datos
+     * como en memoria.
+     */
+    @Scheduled(fixedDelayString = "${jwt.revocation.purge-interval-ms:3600000}")
+    public void purgeExpired() {
+        Date now = new Date();
+        int deleted = revokedTokenRepository.deleteExpired(now);
+        revokedDigests.values().removeIf(expiresAt -> expiresAt < now.getTime());
+        if (deleted > 0) {
+            logger.info("Revocaciones expiradas purgadas: {}", deleted);
+        }
+    }
+
+    static String digest(String token) {
+        try {
+            MessageDigest sha256 = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(sha256.digest(token.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 no disponible", e);
+        }
+    }
+}
@@ -0,0 +1,148 @@
+package com.indhive.security;
+
+import com.indhive.model.RetiredSubject;
+import com.indhive.model.User;
+import com.indhive.repository.RetiredSubjectRepository;
+import com.indhive.repository.UserRepository;
+
+import jakarta.annotation.PostConstruct;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.Date;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Marcador por usuario que indica si los claims de un token siguen vigentes.
+ * Solo guarda en memoria los usuarios cuya versión es mayor que 0, es decir,
+ * aquellos a los que se les cambiaron roles o identidad después de emitir tokens,
+ * y los emails retirados (usuario eliminado o email cambiado).
+ * <p>
+ * Ambos se persisten: la versión en usuarios.token_version y los emails retirados en
+ * retired_subjects, así que una réplica recién arrancada los conoce desde el principio.
+ * La memoria y el aviso en {@link ClusterEventBus} se actualizan al confirmar la transacción;
+ * las versiones solo crecen, así que aplicar un aviso repetido o tardío es inocuo.
+ */
+@Service
+public class TokenVersionService {
+
+    private static final Logger logger = LoggerFactory.getLogger(TokenVersionService.class);
+
+    // Versión con la que se avisa a las demás réplicas de un email retirado
+    private static final int RETIRED = Integer.MAX_VALUE;
+
+    static final String CHANNEL = "token_version";
+
+    private final UserRepository userRepository;
+    private final RetiredSubjectRepository retiredSubjectRepository;
+    private final ClusterEventBus eventBus;
+    private final Map<String, Integer> versions = new ConcurrentHashMap<>();
+
+    // email retirado -> momento de la retirada (epoch ms)
+    private final Map<String, Long> retired = new ConcurrentHashMap<>();
+
+    public TokenVersionService(UserRepository userRepository, RetiredSubjectRepository retiredSubjectRepository,
+                               ClusterEventBus eventBus) {
+        this.userRepository = userRepository;
+        this.retiredSubjectRepository = retiredSubjectRepository;
+        this.eventBus = eventBus;
+    }
+
+    @PostConstruct
+    public void init() {
+        eventBus.subscribe(CHANNEL, this::onRemoteVersion);
+        cargarVersiones();
+        logger.info("Versiones de token cargadas en memoria: {}, emails retirados: {}", versions.size(), retired.size());
+    }
+
+    private void cargarVersiones() {
+        userRepository.findTokenVersions()
+                .forEach(row -> versions.merge(((String) row[0]).toLowerCase(), (Integer) row[1], Math::max));
+        retiredSubjectRepository.findByRetiredAtAfter(limiteDeRetirada())
+                .forEach(subject -> retired.merge(subject.getEmail(), subject.getRetiredAt().getTime(), Math::max));
+    }
+
+    // Mensaje "versión:email" publicado por otra réplica
+    void onRemoteVersion(String payload) {
+        int separador = payload.indexOf(':');
+        if (separador <= 0) {
+            logger.warn("Aviso de versión de token con formato inválido: {}", payload);
+            return;
+        }
+        String email = payload.substring(separador + 1);
+        int version = Integer.parseInt(payload.substring(0, separador));
+        if (version == RETIRED) {
+            retired.putIfAbsent(email, System.currentTimeMillis());
+        } else {
+            versions.merge(email, version, Math::max);
+        }
+    }
+
+    /**
+     * Recupera los cambios de otras réplicas cuyo aviso no llegó.
+     */
+    @Scheduled(fixedDelayString = "${security.cluster.reconcile-interval-ms:30000}")
+    public void reconcile() {
+        if (eventBus.isDistributed()) {
+            cargarVersiones();
+        }
+    }
+
+    /**
+     * Olvida los emails retirados antes de la emisión del token más antiguo que sigue siendo válido.
+     */
+    @Scheduled(fixedDelayString = "${jwt.revocation.purge-interval-ms:3600000}")
+    public void purgeRetired() {
+        Date limite = limiteDeRetirada();
+        int deleted = retiredSubjectRepository.deleteRetiredBefore(limite);
+        retired.values().removeIf(retiredAt -> retiredAt < limite.getTime());
+        if (deleted > 0) {
+            logger.info("Emails retirados purgados: {}", deleted);
+        }
+    }
+
+    /**
+     * Indica si un token emitido con la versión dada quedó desactualizado
+     * y sus claims deben reemplazarse por los datos de la base de datos.
+     */
+    public boolean isStale(String email, int tokenVersion) {
+        String clave = email.toLowerCase();
+        return retired.containsKey(clave) || tokenVersion < versions.getOrDefault(clave, 0);
+    }
+
+    /**
+     * Incrementa la versión del usuario; el llamador es responsable de persistirlo
+     * en la misma transacción.
+     */
+    public void bump(User user) {
+        user.setTokenVersion(user.getTokenVersion() + 1);
+        String email = user.getEmail().toLowerCase();
+        int version = user.getTokenVersion();
+        AfterCommit.run(() -> {
+            versions.merge(email, version, Math::max);
+            eventBus.publish(CHANNEL, version + ":" + email);
+        });
+    }
+
+    /**
+     * Marca como obsoletos todos los tokens emitidos para un email que deja de usarse
+     * (usuario eliminado o email cambiado).
+     */
+    public void retire(String email) {
+        String clave = email.toLowerCase();
+        Date ahora = new Date();
+        retiredSubjectRepository.save(new RetiredSubject(clave, ahora));
+        AfterCommit.run(() -> {
+            retired.put(clave, ahora.getTime());
+            eventBus.publish(CHANNEL, RETIRED + ":" + clave);
+        });
+    }
+
+    private static Date limiteDeRetirada() {
+        return new Date(System.currentTimeMillis() - JwtUtils.TOKEN_TTL.toMillis());
+    }
+}
@@ -1,23 +1,47 @@
 package com.indhive.service;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailSendException;
 import org.springframework.mail.SimpleMailMessage;
 import org.springframework.mail.javamail.JavaMailSender;
 import org.springframework.stereotype.Service;
 
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Envío SMTP. Las peticiones HTTP no lo usan directamente: encolan en {@link MailOutboxService}.
+ */
 @Service
 public class EmailService {
 
+    private static final Logger logger = LoggerFactory.getLogger(EmailService.class);
+
     @Autowired
     private JavaMailSender mailSender;
 
-    public void sendSimpleMessage(String to, String subject, String text) {
-        SimpleMailMessage message = new SimpleMailMessage();
-        message.setTo(to);
-        message.setSubject(subject);
-        message.setText(text);
-        mailSender.send(message);
-
-        System.out.println("Correo enviado a: " + to);
+    /**
+     * Envía varios mensajes reutilizando una sola conexión con el servidor.
+     *
+     * @return mensajes que no se pudieron entregar, con su error (vacío si todo fue bien)
+     */
+    public Map<Object, Exception> enviar(List<SimpleMailMessage> mensajes) {
+        try {
+            mailSender.send(mensajes.toArray(new SimpleMailMessage[0]));
+            return Map.of();
+        } catch (MailSendException e) {
+            logger.warn("Fallaron {} de {} correos: {}", e.getFailedMessages().size(), mensajes.size(), e.getMessage());
+            return e.getFailedMessages();
+        } catch (MailException e) {
+            // Autenticación u otro error que afecta a todo el lote
+            logger.warn("No se pudo enviar el lote de {} correos: {}", mensajes.size(), e.getMessage());
+            Map<Object, Exception> fallidos = new LinkedHashMap<>();
+            mensajes.forEach(mensaje -> fallidos.put(mensaje, e));
+            return fallidos;
+        }
     }
 }
@@ -0,0 +1,146 @@
+package com.indhive.service;
+
+import com.indhive.model.OutboundMail;
+import com.indhive.repository.OutboundMailRepository;
+
+import jakarta.transaction.Transactional;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Cola persistente de correo saliente (tabla outbound_mail).
+ * Encolar es una escritura local; el envío lo hace {@link MailOutboxWorker}.
+ */
+@Service
+public class MailOutboxService {
+
+    private static final Logger logger = LoggerFactory.getLogger(MailOutboxService.class);
+
+    private final OutboundMailRepository repository;
+    private final Clock clock;
+
+    @Value("${mail.outbox.batch-size:20}")
+    private int batchSize;
+
+    @Value("${mail.outbox.max-attempts:5}")
+    private int maxAttempts;
+
+    @Value("${mail.outbox.backoff-base:30s}")
+    private Duration backoffBase;
+
+    @Value("${mail.outbox.backoff-max:30m}")
+    private Duration backoffMax;
+
+    @Value("${mail.outbox.lease:2m}")
+    private Duration lease;
+
+    @Value("${mail.outbox.dedup-window:2m}")
+    private Duration dedupWindow;
+
+    @Value("${mail.outbox.retention:7d}")
+    private Duration retention;
+
+    @Autowired
+    public MailOutboxService(OutboundMailRepository repository) {
+        this(repository, Clock.systemUTC());
+    }
+
+    MailOutboxService(OutboundMailRepository repository, Clock clock) {
+        this.repository = repository;
+        this.clock = clock;
+    }
+
+    /**
+     * Encola un correo. Si ya hay uno pendiente con la misma clave se sustituye su contenido,
+     * y si se envió uno hace menos de mail.outbox.dedup-window se descarta. Un índice único parcial
+     * sobre los pendientes impide que dos peticiones simultáneas encolen dos correos.
+     *
+     * @param dedupKey clave que identifica correos equivalentes, p. ej. "recover:" + email
+     */
+    @Transactional
+    public void encolar(String to, String subject, String text, String dedupKey) {
+        if (repository.updatePending(dedupKey, subject, text) > 0) {
+            return;
+        }
+        Instant now = clock.instant();
+        if (repository.existsByDedupKeyAndStatusAndSentAtAfter(dedupKey, OutboundMail.Status.SENT,
+                now.minus(dedupWindow))) {
+            logger.debug("Correo {} descartado: ya se envió uno hace menos de {}", dedupKey, dedupWindow);
+            return;
+        }
+        if (repository.insertPending(to, subject, text, dedupKey, now) == 0) {
+            // Otra petición lo encoló a la vez: se queda el contenido más reciente
+            repository.updatePending(dedupKey, subject, text);
+        }
+    }
+
+    /**
+     * Reserva un lote de correos listos para enviar: cuenta el intento y los aparta durante
+     * mail.outbox.lease, de modo que si el worker cae se vuelven a reclamar al vencer la reserva.
+     */
+    @Transactional
+    public List<OutboundMail> reclamarLote() {
+        Instant now = clock.instant();
+        List<OutboundMail> lote = repository.findDueForUpdate(now, PageRequest.of(0, batchSize));
+        for (OutboundMail mail : lote) {
+            mail.setAttempts(mail.getAttempts() + 1);
+            mail.setNextAttemptAt(now.plus(lease));
+        }
+        return lote;
+    }
+
+    /**
+     * Registra el resultado de un lote en una sola transacción.
+     *
+     * @param enviados ids entregados al servidor SMTP
+     * @param fallidos id -> error de los que fallaron; se reintentan con espera exponencial
+     *                 hasta mail.outbox.max-attempts
+     */
+    @Transactional
+    public void registrarResultados(Collection<Long> enviados, Map<Long, String> fallidos) {
+        Instant now = clock.instant();
+        repository.findAllById(enviados).forEach(mail -> {
+            mail.setStatus(OutboundMail.Status.SENT);
+            mail.setSentAt(now);
+            mail.setLastError(null);
+        });
+        repository.findAllById(fallidos.keySet()).forEach(mail -> {
+            String error = fallidos.get(mail.getId());
+            mail.setLastError(error != null && error.length() > 1000 ? error.substring(0, 1000) : error);
+            if (mail.getAttempts() >= maxAttempts) {
+                mail.setStatus(OutboundMail.Status.FAILED);
+                logger.warn("Correo {} descartado tras {} intentos: {}", mail.getId(), mail.getAttempts(), error);
+            } else {
+                mail.setNextAttemptAt(now.plus(backoff(mail.getAttempts())));
+            }
+        });
+    }
+
+    // base, 2·base, 4·base... acotado a mail.outbox.backoff-max
+    Duration backoff(int attempts) {
+        Duration espera = backoffBase.multipliedBy(1L << Math.min(attempts - 1, 20));
+        return espera.compareTo(backoffMax) > 0 ? backoffMax : espera;
+    }
+
+    // Borra los correos enviados o descartados más antiguos que mail.outbox.retention
+    @Scheduled(fixedDelayString = "${mail.outbox.purge-interval-ms:3600000}")
+    public void purgarFinalizados() {
+        int borrados = repository.deleteFinishedBefore(clock.instant().minus(retention));
+        if (borrados > 0) {
+            logger.info("Correos finalizados purgados: {}", borrados);
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package com.indhive.service;
+
+import com.indhive.model.OutboundMail;
+
+import jakarta.annotation.PreDestroy;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.mail.SimpleMailMessage;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Vacía la cola de correo saliente con un pool de mail.outbox.workers hilos.
+ * Cada worker reclama lotes hasta que no quedan pendientes y envía cada lote
+ * por una única conexión SMTP. Se desactiva con mail.outbox.worker.enabled=false.
+ */
+@Component
+@ConditionalOnProperty(name = "mail.outbox.worker.enabled", havingValue = "true", matchIfMissing = true)
+public class MailOutboxWorker {
+
+    private static final Logger logger = LoggerFactory.getLogger(MailOutboxWorker.class);
+
+    private final MailOutboxService outbox;
+    private final EmailService emailService;
+    private final int workerCount;
+    private final ExecutorService workers;
+    private final AtomicInteger activos = new AtomicInteger();
+
+    public MailOutboxWorker(MailOutboxService outbox, EmailService emailService,
+                            @Value("${mail.outbox.workers:2}") int workerCount) {
+        this.outbox = outbox;
+        this.emailService = emailService;
+        this.workerCount = workerCount;
+        AtomicInteger numero = new AtomicInteger();
+        this.workers = Executors.newFixedThreadPool(workerCount, tarea -> {
+            Thread hilo = new Thread(tarea, "mail-outbox-" + numero.incrementAndGet());
+            hilo.setDaemon(true);
+            return hilo;
+        });
+    }
+
+    // Completa el pool hasta mail.outbox.workers; los que encuentran la cola vacía terminan enseguida
+    @Scheduled(fixedDelayString = "${mail.outbox.poll-interval-ms:2000}")
+    public void despachar() {
+        while (activos.get() < workerCount) {
+            activos.incrementAndGet();
+            workers.execute(this::vaciarCola);
+        }
+    }
+
+    private void vaciarCola() {
+        try {
+            while (procesarLote() > 0) {
+                // siguiente lote
+            }
+        } catch (RuntimeException e) {
+            logger.error("Error procesando la cola de correo", e);
+        } finally {
+            activos.decrementAndGet();
+        }
+    }
+
+    int procesarLote() {
+        List<OutboundMail> lote = outbox.reclamarLote();
+        if (lote.isEmpty()) {
+            return 0;
+        }
+
+        List<SimpleMailMessage> mensajes = new ArrayList<>(lote.size());
+        for (OutboundMail mail : lote) {
+            SimpleMailMessage message = new SimpleMailMessage();
+            message.setTo(mail.getRecipient());
+            message.setSubject(mail.getSubject());
+            message.setText(mail.getBody());
+            mensajes.add(message);
+        }
+
+        Map<Object, Exception> errores = emailService.enviar(mensajes);
+        List<Long> enviados = new ArrayList<>();
+        Map<Long, String> fallidos = new HashMap<>();
+        for (int i = 0; i < lote.size(); i++) {
+            Exception error = errores.get(mensajes.get(i));
+            if (error == null) {
+                enviados.add(lote.get(i).getId());
+            } else {
+                fallidos.put(lote.get(i).getId(), error.getMessage());
+            }
+        }
+        outbox.registrarResultados(enviados, fallidos);
+        logger.debug("Lote de correo procesado: {} enviados, {} fallidos", enviados.size(), fallidos.size());
+        return lote.size();
+    }
+
+    @PreDestroy
+    public void destroy() {
+        workers.shutdownNow();
+    }
+}
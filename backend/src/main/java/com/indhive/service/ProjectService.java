@@ -1,31 +1,183 @@
 package com.indhive.service;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import com.indhive.dto.CursorPage;
+import com.indhive.dto.ProjectDTO;
+import com.indhive.dto.ProjectRequestDTO;
+import com.indhive.dto.SimpleUserDTO;
 import com.indhive.model.Project;
+import com.indhive.model.ProjectCollaborator;
+import com.indhive.model.User;
 import com.indhive.repository.ProjectCollaboratorRepository;
+import com.indhive.repository.ProjectCollaboratorRepository.CollaboratorRow;
 import com.indhive.repository.ProjectRepository;
+import com.indhive.repository.UserRepository;
 import jakarta.persistence.EntityManager;
+import jakarta.persistence.LockModeType;
 import jakarta.transaction.Transactional;
 
 @Service
 @Transactional  // Mueve esta anotación aquí
 public class ProjectService {
 
+    public static final int MAX_PAGE_SIZE = 100;
+
+    public static final int MAX_BULK_SIZE = 5000;
+
+    // Igual que hibernate.jdbc.batch_size y el allocationSize de la secuencia
+    private static final int BULK_CHUNK_SIZE = 50;
+
     @Autowired
     private ProjectRepository proyectoRepository;
 
+    @Autowired
+    private UserRepository userRepository;
+
     @Autowired
     private ProjectCollaboratorRepository collaboratorRepository;
 
     @Autowired
     private EntityManager entityManager;
 
-    // Obtener todos los proyectos
-    public List<Project> listarProyectos() {
-        return proyectoRepository.findAll();
+    /**
+     * Lista una página de proyectos ordenados por id, a partir del cursor recibido.
+     * Se pide un elemento extra para saber si existe una página siguiente.
+     *
+     * @param cursor      cursor devuelto por la página anterior, o null para la primera
+     * @param ownerId     filtra por dueño si no es null
+     * @param titlePrefix filtra por prefijo del título (sin distinguir mayúsculas) si no es null
+     * @param limit       tamaño de página, acotado a {@link #MAX_PAGE_SIZE}
+     */
+    public CursorPage<ProjectDTO> listarProyectos(String cursor, Long ownerId, String titlePrefix, int limit) {
+        int size = tamanoDePagina(limit);
+        Long afterId = CursorPage.decodeCursor(cursor);
+
+        List<ProjectDTO> proyectos = proyectoRepository.findPage(afterId, ownerId, SearchPatterns.prefix(titlePrefix),
+                PageRequest.of(0, size + 1));
+        boolean hasNext = proyectos.size() > size;
+        if (hasNext) {
+            proyectos = proyectos.subList(0, size);
+        }
+        if (proyectos.isEmpty()) {
+            return new CursorPage<>(List.of(), null);
+        }
+
+        asignarColaboradores(proyectos);
+        String nextCursor = hasNext ? CursorPage.encodeCursor(proyectos.get(proyectos.size() - 1).getId()) : null;
+        return new CursorPage<>(proyectos, nextCursor);
+    }
+
+    /**
+     * Versión de la página que devolvería {@link #listarProyectos(String, Long, String, int)} con los mismos
+     * parámetros, en una sola consulta de agregados sobre la misma ventana (incluido el elemento extra
+     * que decide el cursor siguiente).
+     */
+    public ProjectRepository.PageVersion versionDePagina(String cursor, Long ownerId, String titlePrefix, int limit) {
+        return proyectoRepository.findPageVersion(CursorPage.decodeCursor(cursor), ownerId,
+                SearchPatterns.prefix(titlePrefix), tamanoDePagina(limit) + 1);
+    }
+
+    private static int tamanoDePagina(int limit) {
+        return Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+    }
+
+    // Una sola consulta para los colaboradores de todos los proyectos de la página
+    private void asignarColaboradores(List<ProjectDTO> proyectos) {
+        List<Long> ids = proyectos.stream().map(ProjectDTO::getId).toList();
+        Map<Long, List<SimpleUserDTO>> porProyecto = collaboratorRepository.findRowsByProjectIds(ids).stream()
+                .collect(Collectors.groupingBy(
+                        CollaboratorRow::getProjectId,
+                        Collectors.mapping(row -> new SimpleUserDTO(row.getUserId(), row.getUsername(), row.getUserVersion()),
+                                Collectors.toList())));
+        proyectos.forEach(p -> p.setCollaborators(porProyecto.getOrDefault(p.getId(), new ArrayList<>())));
+    }
+
+    // Colaboradores de un proyecto sin cargar las entidades
+    public List<SimpleUserDTO> listarColaboradores(Long projectId) {
+        return collaboratorRepository.findRowsByProjectIds(List.of(projectId)).stream()
+                .map(row -> new SimpleUserDTO(row.getUserId(), row.getUsername(), row.getUserVersion()))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Deja como colaboradores exactamente los usuarios indicados, calculando la diferencia en la base de datos:
+     * un DELETE de los que sobran y un INSERT ... ON CONFLICT DO NOTHING de los que faltan.
+     * El dueño nunca se añade y, si ya figuraba como colaborador, se conserva.
+     * Los ids que no corresponden a ningún usuario se ignoran.
+     *
+     * @return colaboradores resultantes
+     */
+    public List<SimpleUserDTO> reemplazarColaboradores(Project proyecto, Collection<Long> userIds) {
+        Long ownerId = proyecto.getOwner().getId();
+
+        Set<Long> conservar = new HashSet<>(userIds);
+        conservar.add(ownerId);
+        collaboratorRepository.deleteByProjectIdAndUserIdNotIn(proyecto.getId(), conservar);
+
+        Set<Long> agregar = new HashSet<>(userIds);
+        agregar.remove(ownerId);
+        if (!agregar.isEmpty()) {
+            collaboratorRepository.insertMissing(proyecto.getId(), agregar);
+        }
+
+        return listarColaboradores(proyecto.getId());
+    }
+
+    /**
+     * Alta masiva de proyectos de un mismo dueño. Los colaboradores de todo el lote se resuelven
+     * con una sola consulta y los inserts se envían en lotes de {@link #BULK_CHUNK_SIZE},
+     * vaciando el contexto de persistencia tras cada uno.
+     *
+     * @return ids generados, en el orden recibido
+     */
+    public List<Long> importarProyectos(User owner, List<ProjectRequestDTO> dtos) {
+        Set<Long> colaboradorIds = dtos.stream()
+                .filter(dto -> dto.getCollaboratorIds() != null)
+                .flatMap(dto -> dto.getCollaboratorIds().stream())
+                .collect(Collectors.toSet());
+        Set<Long> existentes = userRepository.findAllById(colaboradorIds).stream()
+                .map(User::getId)
+                .collect(Collectors.toSet());
+
+        List<Long> ids = new ArrayList<>(dtos.size());
+        List<Project> lote = new ArrayList<>(BULK_CHUNK_SIZE);
+        for (ProjectRequestDTO dto : dtos) {
+            // Referencias en vez de entidades: tras cada lote se vacía el contexto y las entidades quedarían separadas
+            Project proyecto = new Project(dto.getTitle(), dto.getDescription(),
+                    entityManager.getReference(User.class, owner.getId()));
+            if (dto.getCollaboratorIds() != null) {
+                dto.getCollaboratorIds().stream()
+                        .filter(existentes::contains)
+                        .map(userId -> entityManager.getReference(User.class, userId))
+                        .forEach(user -> proyecto.getCollaborators().add(new ProjectCollaborator(proyecto, user)));
+            }
+            lote.add(proyecto);
+            if (lote.size() == BULK_CHUNK_SIZE) {
+                volcarLote(lote, ids);
+            }
+        }
+        volcarLote(lote, ids);
+        return ids;
+    }
+
+    private void volcarLote(List<Project> lote, List<Long> ids) {
+        if (lote.isEmpty()) return;
+        proyectoRepository.saveAll(lote);
+        proyectoRepository.flush();
+        entityManager.clear();
+        lote.forEach(proyecto -> ids.add(proyecto.getId()));
+        lote.clear();
     }
 
     // Buscar por ID
@@ -33,11 +185,55 @@ public class ProjectService {
         return proyectoRepository.findById(id);
     }
 
+    // Buscar por ID incluyendo los colaboradores, para devolver el detalle completo
+    public Optional<Project> obtenerProyectoConColaboradores(Long id) {
+        return proyectoRepository.findWithCollaboratorsById(id);
+    }
+
     // Guardar o actualizar
     public Project guardarProyecto(Project proyecto) {
         return proyectoRepository.save(proyecto);
     }
 
+    /**
+     * Edición completa de un proyecto en una sola transacción: título, descripción, nueva versión
+     * y colaboradores. La fila queda bloqueada desde la lectura, así que {@code comprobar}
+     * (permisos, If-Match) ve la última versión confirmada y ninguna otra edición se cuela
+     * antes de escribir. Si {@code comprobar} lanza una excepción no se guarda nada.
+     *
+     * @param cargarColaboradores carga los colaboradores antes de {@code comprobar}, si los necesita
+     * @return vacío si el proyecto no existe
+     */
+    public Optional<ProyectoActualizado> actualizarProyecto(Long id, ProjectRequestDTO dto,
+                                                            boolean cargarColaboradores,
+                                                            Consumer<Project> comprobar) {
+        Optional<Project> encontrado = proyectoRepository.findForUpdateById(id);
+        if (encontrado.isEmpty()) {
+            return Optional.empty();
+        }
+        Project proyecto = encontrado.get();
+        if (cargarColaboradores) {
+            // Misma instancia: la consulta con el grafo solo inicializa sus colaboradores
+            proyectoRepository.findWithCollaboratorsById(id);
+        }
+        comprobar.accept(proyecto);
+
+        proyecto.setTitle(dto.getTitle());
+        proyecto.setDescription(dto.getDescription());
+        // Versión nueva aunque solo cambien los colaboradores, que se guardan con SQL aparte
+        entityManager.lock(proyecto, LockModeType.PESSIMISTIC_FORCE_INCREMENT);
+        // La versión de la respuesta (y de su ETag) ha de ser la que queda en la base de datos
+        proyectoRepository.flush();
+
+        List<SimpleUserDTO> colaboradores = dto.getCollaboratorIds() != null
+                ? reemplazarColaboradores(proyecto, dto.getCollaboratorIds())
+                : listarColaboradores(id);
+        return Optional.of(new ProyectoActualizado(proyecto, colaboradores));
+    }
+
+    // Proyecto editado y sus colaboradores tal como quedan al confirmar
+    public record ProyectoActualizado(Project proyecto, List<SimpleUserDTO> colaboradores) {}
+
     /**
      * Elimina un proyecto junto con sus colaboradores asociados.
      * Valida que el proyecto exista antes de eliminar.
@@ -68,5 +264,8 @@ public class ProjectService {
     public void eliminarColaborador(Long projectId, Long userId) {
         // Elimina la relación entre el proyecto y el colaborador en la tabla intermedia
         proyectoRepository.deleteCollaborator(projectId, userId);
+        // La lista de colaboradores es parte del proyecto: cambia su versión
+        proyectoRepository.findById(projectId)
+                .ifPresent(proyecto -> entityManager.lock(proyecto, LockModeType.PESSIMISTIC_FORCE_INCREMENT));
     }
 }
@@ -0,0 +1,21 @@
+package com.indhive.service;
+
+/**
+ * Construye patrones LIKE de búsqueda por prefijo, escapando los comodines
+ * que escriba el usuario. Las consultas deben declarar ESCAPE '\'.
+ */
+final class SearchPatterns {
+
+    private SearchPatterns() {}
+
+    static String prefix(String text) {
+        if (text == null || text.isBlank()) {
+            return null;
+        }
+        String escaped = text.trim().toLowerCase()
+                .replace("\\", "\\\\")
+                .replace("%", "\\%")
+                .replace("_", "\\_");
+        return escaped + "%";
+    }
+}
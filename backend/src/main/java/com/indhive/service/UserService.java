@@ -1,23 +1,37 @@
 package com.indhive.service;
 
+import com.indhive.dto.CursorPage;
+import com.indhive.dto.ProjectSummaryDTO;
 import com.indhive.dto.UserDTO;
 import com.indhive.dto.UserRequestDTO;
+import com.indhive.exception.DuplicateUsersException;
 import com.indhive.model.Project;
 import com.indhive.model.User;
-import com.indhive.model.ProjectCollaborator;
 import com.indhive.repository.ProjectRepository;
 import com.indhive.repository.UserRepository;
 import com.indhive.repository.ProjectCollaboratorRepository;
+import com.indhive.security.CustomUserDetailsService;
+import com.indhive.security.TokenVersionService;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import jakarta.persistence.EntityManager;
 import jakarta.transaction.Transactional;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
-import java.util.stream.Collectors;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 @Service
 public class UserService {
@@ -34,14 +48,63 @@ public class UserService {
     @Autowired
     private PasswordEncoder passwordEncoder;
 
-    public List<User> listarUsuarios() {
-        return userRepository.findAll();
+    @Autowired
+    private TokenVersionService tokenVersionService;
+
+    @Autowired
+    private CustomUserDetailsService userDetailsService;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    public static final int MAX_PAGE_SIZE = 100;
+
+    public static final int MAX_BULK_SIZE = 5000;
+
+    // Igual que hibernate.jdbc.batch_size y el allocationSize de la secuencia
+    private static final int BULK_CHUNK_SIZE = 50;
+
+    /**
+     * Página del directorio de usuarios, leída directamente como DTO.
+     *
+     * @param search prefijo de username o email (sin distinguir mayúsculas), opcional
+     */
+    public CursorPage<UserDTO> listarUsuarios(String cursor, String search, int limit) {
+        int size = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        Long afterId = CursorPage.decodeCursor(cursor);
+
+        List<UserDTO> usuarios = userRepository.findPage(afterId, SearchPatterns.prefix(search),
+                PageRequest.of(0, size + 1));
+        if (usuarios.size() <= size) {
+            return new CursorPage<>(usuarios, null);
+        }
+        usuarios = usuarios.subList(0, size);
+        return new CursorPage<>(usuarios, CursorPage.encodeCursor(usuarios.get(size - 1).getId()));
+    }
+
+    /**
+     * Recorre todos los usuarios sin cargarlos en memoria; el stream debe consumirse
+     * dentro de la transacción.
+     */
+    @org.springframework.transaction.annotation.Transactional(readOnly = true)
+    public void exportarUsuarios(Consumer<UserDTO> consumidor) {
+        try (Stream<UserDTO> usuarios = userRepository.streamAll()) {
+            usuarios.forEach(consumidor);
+        }
     }
 
     public Optional<User> obtenerUsuarioPorId(Long id) {
         return userRepository.findById(id);
     }
 
+    // Resuelve varios usuarios en una sola consulta; los ids que no existen se ignoran
+    public List<User> obtenerUsuariosPorIds(Collection<Long> ids) {
+        return userRepository.findAllById(ids);
+    }
+
     public Optional<User> obtenerUsuarioPorUsername(String username) {
         return userRepository.findByUsername(username);
     }
@@ -54,34 +117,121 @@ public class UserService {
         if (usuario.getPassword() != null && !usuario.getPassword().isBlank()) {
             usuario.setPassword(passwordEncoder.encode(usuario.getPassword()));
         }
-        return userRepository.save(usuario);
+        User guardado = userRepository.save(usuario);
+        // Después de guardar: antes, una carga concurrente volvería a cachear la fila anterior
+        userDetailsService.evict(guardado.getEmail());
+        return guardado;
     }
 
-    // Actualiza un usuario usando UserRequestDTO
-    public User actualizarUsuario(Long id, UserRequestDTO dto, boolean isAdmin) {
-        User usuarioExistente = userRepository.findById(id)
-                .orElseThrow(() -> new RuntimeException("Usuario no encontrado"));
-
-        usuarioExistente.setUsername(dto.getUsername());
-        usuarioExistente.setEmail(dto.getEmail());
+    /**
+     * Alta masiva: comprueba antes de escribir que ningún email ni username exista ya o se repita
+     * en la petición, cifra las contraseñas sin transacción abierta y después inserta en lotes de
+     * {@link #BULK_CHUNK_SIZE}, vaciando el contexto de persistencia tras cada lote.
+     * Si algún usuario viola una restricción no se guarda ninguno.
+     *
+     * @return ids generados, en el orden recibido
+     * @throws DuplicateUsersException con todos los emails y usernames duplicados
+     */
+    public List<Long> importarUsuarios(List<UserRequestDTO> dtos) {
+        comprobarDuplicados(dtos);
 
-        // Solo actualiza la contraseña si se ha proporcionado una nueva
-        if (dto.getPassword() != null && !dto.getPassword().isBlank()) {
-            usuarioExistente.setPassword(passwordEncoder.encode(dto.getPassword()));
+        // Cada hash de BCrypt tarda decenas de ms: con la transacción abierta, miles de ellos
+        // retendrían una conexión del pool durante minutos
+        List<User> usuarios = new ArrayList<>(dtos.size());
+        for (UserRequestDTO dto : dtos) {
+            String password = dto.getPassword() != null && !dto.getPassword().isBlank()
+                    ? passwordEncoder.encode(dto.getPassword())
+                    : null;
+            String roles = dto.getRoles() != null ? dto.getRoles() : "ROLE_USER";
+            usuarios.add(new User(dto.getUsername(), dto.getEmail(), roles, password));
         }
 
-        // Solo los admins pueden cambiar el rol
-        if (isAdmin && dto.getRoles() != null) {
-            usuarioExistente.setRoles(dto.getRoles());
+        return transactionTemplate.execute(tx -> {
+            List<Long> ids = new ArrayList<>(usuarios.size());
+            List<User> lote = new ArrayList<>(BULK_CHUNK_SIZE);
+            for (User usuario : usuarios) {
+                lote.add(usuario);
+                if (lote.size() == BULK_CHUNK_SIZE) {
+                    volcarLote(lote, ids);
+                }
+            }
+            volcarLote(lote, ids);
+            return ids;
+        });
+    }
+
+    // Repetidos dentro de la petición o ya registrados; dos consultas para todo el lote
+    private void comprobarDuplicados(List<UserRequestDTO> dtos) {
+        Set<String> emails = new HashSet<>();
+        Set<String> usernames = new HashSet<>();
+        Set<String> emailsDuplicados = new TreeSet<>();
+        Set<String> usernamesDuplicados = new TreeSet<>();
+        for (UserRequestDTO dto : dtos) {
+            if (dto.getEmail() != null && !emails.add(dto.getEmail())) {
+                emailsDuplicados.add(dto.getEmail());
+            }
+            if (dto.getUsername() != null && !usernames.add(dto.getUsername())) {
+                usernamesDuplicados.add(dto.getUsername());
+            }
         }
+        if (!emails.isEmpty()) {
+            emailsDuplicados.addAll(userRepository.findExistingEmails(emails));
+        }
+        if (!usernames.isEmpty()) {
+            usernamesDuplicados.addAll(userRepository.findExistingUsernames(usernames));
+        }
+        if (!emailsDuplicados.isEmpty() || !usernamesDuplicados.isEmpty()) {
+            throw new DuplicateUsersException(List.copyOf(emailsDuplicados), List.copyOf(usernamesDuplicados));
+        }
+    }
 
-        return userRepository.save(usuarioExistente);
+    private void volcarLote(List<User> lote, List<Long> ids) {
+        if (lote.isEmpty()) return;
+        userRepository.saveAll(lote);
+        userRepository.flush();
+        entityManager.clear();
+        lote.forEach(user -> ids.add(user.getId()));
+        lote.clear();
+    }
+
+    // Actualiza un usuario usando UserRequestDTO. La contraseña nueva se cifra antes de abrir la
+    // transacción, como en importarUsuarios: esperando al pool de hashing no se retiene la conexión
+    public User actualizarUsuario(Long id, UserRequestDTO dto, boolean isAdmin) {
+        // Solo actualiza la contraseña si se ha proporcionado una nueva
+        String password = dto.getPassword() != null && !dto.getPassword().isBlank()
+                ? passwordEncoder.encode(dto.getPassword())
+                : null;
+
+        return transactionTemplate.execute(tx -> {
+            User usuarioExistente = userRepository.findById(id)
+                    .orElseThrow(() -> new RuntimeException("Usuario no encontrado"));
+            String emailAnterior = usuarioExistente.getEmail();
+            String rolesAnteriores = usuarioExistente.getRoles();
+
+            usuarioExistente.setUsername(dto.getUsername());
+            usuarioExistente.setEmail(dto.getEmail());
+
+            if (password != null) {
+                usuarioExistente.setPassword(password);
+            }
+
+            // Solo los admins pueden cambiar el rol
+            if (isAdmin && dto.getRoles() != null) {
+                usuarioExistente.setRoles(dto.getRoles());
+            }
+
+            invalidarTokensSiCambiaIdentidad(usuarioExistente, emailAnterior, rolesAnteriores);
+            return userRepository.save(usuarioExistente);
+        });
     }
 
     // Método anterior de actualización, ahora no es necesario
+    @Transactional
     public User actualizarUsuarioDesdeDTO(Long id, UserDTO dto) {
         User usuarioExistente = userRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Usuario no encontrado"));
+        String emailAnterior = usuarioExistente.getEmail();
+        String rolesAnteriores = usuarioExistente.getRoles();
 
         usuarioExistente.setUsername(dto.getUsername());
         usuarioExistente.setEmail(dto.getEmail());
@@ -90,18 +240,64 @@ public class UserService {
             usuarioExistente.setRoles(dto.getRoles());
         }
 
+        invalidarTokensSiCambiaIdentidad(usuarioExistente, emailAnterior, rolesAnteriores);
         return userRepository.save(usuarioExistente);
     }
 
-    public List<Project> buscarColaboraciones(Long userId) {
-        return collaboratorRepository.findByUserId(userId).stream()
-                .map(ProjectCollaborator::getProject)
-                .collect(Collectors.toList());
+    // Añade un rol sin volver a cifrar la contraseña ya almacenada
+    @Transactional
+    public User agregarRol(User usuario, String rol) {
+        if (usuario.getRoles().contains(rol)) {
+            return usuario;
+        }
+        usuario.setRoles(usuario.getRoles() + "," + rol);
+        tokenVersionService.bump(usuario);
+        userDetailsService.evict(usuario.getEmail());
+        return userRepository.save(usuario);
+    }
+
+    // Los tokens emitidos antes de un cambio de email o de roles dejan de ser confiables.
+    // La caché de UserDetails se descarta siempre porque también guarda la contraseña
+    private void invalidarTokensSiCambiaIdentidad(User usuario, String emailAnterior, String rolesAnteriores) {
+        boolean cambiaEmail = !usuario.getEmail().equalsIgnoreCase(emailAnterior);
+        boolean cambianRoles = !Objects.equals(usuario.getRoles(), rolesAnteriores);
+
+        userDetailsService.evict(emailAnterior);
+        userDetailsService.evict(usuario.getEmail());
+
+        if (cambiaEmail) {
+            tokenVersionService.retire(emailAnterior);
+        }
+        if (cambiaEmail || cambianRoles) {
+            tokenVersionService.bump(usuario);
+        }
+    }
+
+    /**
+     * Página de proyectos en los que participa el usuario, como dueño o colaborador.
+     * Devuelve vacío si el usuario no existe.
+     */
+    public Optional<CursorPage<ProjectSummaryDTO>> listarProyectosDeUsuario(Long userId, String cursor, int limit) {
+        int size = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        Long afterId = CursorPage.decodeCursor(cursor);
+
+        List<ProjectSummaryDTO> proyectos = projectRepository.findUserProjectsPage(userId, afterId,
+                PageRequest.of(0, size + 1));
+        // Solo hace falta comprobar que el usuario existe cuando la página viene vacía
+        if (proyectos.isEmpty() && !userRepository.existsById(userId)) {
+            return Optional.empty();
+        }
+        if (proyectos.size() <= size) {
+            return Optional.of(new CursorPage<>(proyectos, null));
+        }
+        proyectos = proyectos.subList(0, size);
+        return Optional.of(new CursorPage<>(proyectos, CursorPage.encodeCursor(proyectos.get(size - 1).getId())));
     }
 
     @Transactional
     public void eliminarUsuario(Long id) {
-        Optional<User> userOpt = userRepository.findById(id);
+        // El usuario y sus proyectos propios se cargan en una sola consulta
+        Optional<User> userOpt = userRepository.findWithOwnedProjectsById(id);
         if (userOpt.isEmpty()) return;
 
         User user = userOpt.get();
@@ -110,10 +306,12 @@ public class UserService {
         collaboratorRepository.deleteByUserId(user.getId());
 
         // 2. Eliminar proyectos que posee el usuario directamente
-        List<Project> owned = projectRepository.findByOwner(user);
+        List<Project> owned = new ArrayList<>(user.getOwnedProjects());
         projectRepository.deleteAll(owned);
 
         // 3. Eliminar usuario
         userRepository.delete(user);
+        tokenVersionService.retire(user.getEmail());
+        userDetailsService.evict(user.getEmail());
     }
 }
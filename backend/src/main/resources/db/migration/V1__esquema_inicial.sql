@@ -0,0 +1,88 @@
+-- Esquema de partida, equivalente al que generaba spring.jpa.hibernate.ddl-auto=update.
+-- Idempotente: las bases creadas por Hibernate se registran con baseline-version=0 y esta
+-- migración solo añade lo que les falte (p. ej. tablas de versiones posteriores a su último despliegue).
+
+CREATE SEQUENCE IF NOT EXISTS usuarios_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS proyectos_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS outbound_mail_seq START WITH 1 INCREMENT BY 50;
+
+CREATE TABLE IF NOT EXISTS usuarios (
+    id            bigint       NOT NULL,
+    username      varchar(255),
+    email         varchar(255),
+    roles         varchar(255),
+    password      varchar(255),
+    token_version integer      DEFAULT 0 NOT NULL,
+    PRIMARY KEY (id)
+);
+ALTER TABLE usuarios ADD COLUMN IF NOT EXISTS token_version integer DEFAULT 0 NOT NULL;
+
+CREATE TABLE IF NOT EXISTS proyectos (
+    id          bigint       NOT NULL,
+    title       varchar(255),
+    description text,
+    owner_id    bigint       NOT NULL,
+    PRIMARY KEY (id)
+);
+
+CREATE TABLE IF NOT EXISTS project_collaborators (
+    project_id bigint NOT NULL,
+    user_id    bigint NOT NULL,
+    PRIMARY KEY (project_id, user_id)
+);
+
+CREATE TABLE IF NOT EXISTS revoked_tokens (
+    token_hash varchar(64)  NOT NULL,
+    revoked_at timestamp(6),
+    expires_at timestamp(6) NOT NULL,
+    PRIMARY KEY (token_hash)
+);
+CREATE INDEX IF NOT EXISTS idx_revoked_tokens_expires_at ON revoked_tokens (expires_at);
+
+CREATE TABLE IF NOT EXISTS outbound_mail (
+    id              bigint                      NOT NULL,
+    recipient       varchar(255)                NOT NULL,
+    subject         varchar(255)                NOT NULL,
+    body            text                        NOT NULL,
+    dedup_key       varchar(255)                NOT NULL,
+    status          varchar(16)                 NOT NULL CHECK (status IN ('PENDING', 'SENT', 'FAILED')),
+    attempts        integer                     NOT NULL,
+    next_attempt_at timestamp(6) with time zone NOT NULL,
+    created_at      timestamp(6) with time zone NOT NULL,
+    sent_at         timestamp(6) with time zone,
+    last_error      varchar(1000),
+    PRIMARY KEY (id)
+);
+CREATE INDEX IF NOT EXISTS idx_outbound_mail_status_next_attempt ON outbound_mail (status, next_attempt_at);
+CREATE INDEX IF NOT EXISTS idx_outbound_mail_dedup_key ON outbound_mail (dedup_key);
+
+-- La clave va primero: el reinicio tras un login correcto borra por attempt_key
+CREATE TABLE IF NOT EXISTS login_attempts (
+    attempt_key varchar(320) NOT NULL,
+    bucket      bigint       NOT NULL,
+    failures    integer      NOT NULL,
+    PRIMARY KEY (attempt_key, bucket)
+);
+CREATE INDEX IF NOT EXISTS idx_login_attempts_bucket ON login_attempts (bucket);
+
+-- PostgreSQL no tiene ADD CONSTRAINT IF NOT EXISTS
+DO $$
+BEGIN
+    ALTER TABLE proyectos ADD CONSTRAINT fk_project_owner
+        FOREIGN KEY (owner_id) REFERENCES usuarios (id) ON DELETE CASCADE;
+EXCEPTION WHEN duplicate_object THEN NULL;
+END $$;
+
+DO $$
+BEGIN
+    ALTER TABLE project_collaborators ADD CONSTRAINT fk_project_collaborators_project
+        FOREIGN KEY (project_id) REFERENCES proyectos (id);
+EXCEPTION WHEN duplicate_object THEN NULL;
+END $$;
+
+DO $$
+BEGIN
+    ALTER TABLE project_collaborators ADD CONSTRAINT fk_project_collaborators_user
+        FOREIGN KEY (user_id) REFERENCES usuarios (id);
+EXCEPTION WHEN duplicate_object THEN NULL;
+END $$;
@@ -0,0 +1,25 @@
+-- Índices para los caminos calientes de autenticación y pertenencia a proyectos.
+-- Si hubiera emails o usernames duplicados, las restricciones únicas fallan y la migración
+-- se detiene sin aplicar nada: hay que resolver los duplicados antes de desplegar.
+
+-- Login, registro y cada petición autenticada: findByEmail, existsByEmail, findByUsername, existsByUsername
+CREATE UNIQUE INDEX IF NOT EXISTS uk_usuarios_email ON usuarios (email);
+CREATE UNIQUE INDEX IF NOT EXISTS uk_usuarios_username ON usuarios (username);
+
+-- Directorio de usuarios: LOWER(username|email) LIKE 'prefijo%'
+CREATE INDEX IF NOT EXISTS idx_usuarios_username_lower ON usuarios (lower(username) text_pattern_ops);
+CREATE INDEX IF NOT EXISTS idx_usuarios_email_lower ON usuarios (lower(email) text_pattern_ops);
+
+-- Carga de versiones de token al arrancar: solo los pocos usuarios con token_version > 0
+CREATE INDEX IF NOT EXISTS idx_usuarios_token_version ON usuarios (token_version) WHERE token_version > 0;
+
+-- Proyectos de un dueño (findByOwner, listado filtrado, proyectos de un usuario) y búsqueda por título
+CREATE INDEX IF NOT EXISTS idx_proyectos_owner_id ON proyectos (owner_id);
+CREATE INDEX IF NOT EXISTS idx_proyectos_title_lower ON proyectos (lower(title) text_pattern_ops);
+
+-- Colaboraciones de un usuario (findByUserId, deleteByUserId, EXISTS de findUserProjectsPage).
+-- Las de un proyecto ya usan el prefijo de la clave primaria (project_id, user_id)
+CREATE INDEX IF NOT EXISTS idx_project_collaborators_user_id ON project_collaborators (user_id);
+
+-- Reconciliación de revocaciones entre réplicas (findByRevokedAtAfter)
+CREATE INDEX IF NOT EXISTS idx_revoked_tokens_revoked_at ON revoked_tokens (revoked_at);
@@ -0,0 +1,4 @@
+-- Versión de cada usuario y proyecto (@Version): bloqueo optimista en las ediciones y base de los ETag
+-- con los que la API responde 304 a las peticiones condicionales. Las filas existentes empiezan en 0.
+ALTER TABLE usuarios ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE proyectos ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT 0;
@@ -0,0 +1,20 @@
+-- Revocaciones anteriores a revoked_tokens: la tabla revoked_token (de ddl-auto=update) guardaba el JWT
+-- completo y no su expiración. Se copian como hash SHA-256, igual que TokenRevocationService.digest,
+-- para que los tokens revocados por logout o cambio de contraseña que aún no han expirado sigan rechazados.
+-- Esos tokens duraban 24 horas desde su emisión, anterior a la revocación: revoked_at + 24 horas es una
+-- cota segura de su expiración. Las filas ya vencidas se omiten; el resto las purga TokenRevocationService.
+DO $$
+BEGIN
+    IF to_regclass('revoked_token') IS NOT NULL THEN
+        INSERT INTO revoked_tokens (token_hash, revoked_at, expires_at)
+        SELECT encode(sha256(convert_to(token, 'UTF8')), 'hex'),
+               revoked_at,
+               COALESCE(revoked_at, now()) + interval '24 hours'
+        FROM revoked_token
+        WHERE token IS NOT NULL
+          AND COALESCE(revoked_at, now()) + interval '24 hours' > now()
+        ON CONFLICT (token_hash) DO NOTHING;
+
+        DROP TABLE revoked_token;
+    END IF;
+END $$;
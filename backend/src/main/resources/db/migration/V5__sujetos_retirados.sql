@@ -0,0 +1,9 @@
+-- Emails retirados (usuario eliminado o email cambiado): sus tokens no se aceptan por los claims
+-- aunque nadie vuelva a subir su token_version. TokenVersionService los carga al arrancar y los
+-- borra cuando los tokens emitidos antes de retirarlos ya habrían expirado.
+CREATE TABLE IF NOT EXISTS retired_subjects (
+    email      varchar(255) NOT NULL,
+    retired_at timestamp(6) NOT NULL,
+    PRIMARY KEY (email)
+);
+CREATE INDEX IF NOT EXISTS idx_retired_subjects_retired_at ON retired_subjects (retired_at);
@@ -0,0 +1,18 @@
+-- Las tablas usuarios y proyectos se crearon con columnas IDENTITY; usuarios_seq y proyectos_seq (V1)
+-- empiezan en 1. Se adelantan por encima del id máximo existente antes de que la aplicación acepte
+-- peticiones, para no repetir ids. Con el optimizador pooled, nextval = v reserva (v - 50, v]:
+-- setval(max) deja el siguiente bloque empezando en max + 1. En una base vacía o ya alineada no hace nada.
+DO $$
+DECLARE
+    max_id bigint;
+BEGIN
+    SELECT MAX(id) INTO max_id FROM usuarios;
+    IF max_id IS NOT NULL AND max_id >= (SELECT last_value FROM usuarios_seq) THEN
+        PERFORM setval('usuarios_seq', max_id);
+    END IF;
+
+    SELECT MAX(id) INTO max_id FROM proyectos;
+    IF max_id IS NOT NULL AND max_id >= (SELECT last_value FROM proyectos_seq) THEN
+        PERFORM setval('proyectos_seq', max_id);
+    END IF;
+END $$;
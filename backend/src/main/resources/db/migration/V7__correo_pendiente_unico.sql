@@ -0,0 +1,11 @@
+-- Como mucho un correo pendiente por clave de deduplicación: MailOutboxService.encolar inserta con
+-- ON CONFLICT DO NOTHING, así que dos peticiones simultáneas (p. ej. dos /recover) no encolan dos correos.
+-- Los pendientes repetidos que ya existan se dejan en el más reciente y el resto se descarta.
+UPDATE outbound_mail m
+SET status = 'FAILED', last_error = 'Duplicado de otro correo pendiente con la misma clave'
+WHERE m.status = 'PENDING'
+  AND EXISTS (SELECT 1 FROM outbound_mail o
+              WHERE o.dedup_key = m.dedup_key AND o.status = 'PENDING' AND o.id > m.id);
+
+CREATE UNIQUE INDEX IF NOT EXISTS uk_outbound_mail_pending_dedup_key
+    ON outbound_mail (dedup_key) WHERE status = 'PENDING';
@@ -0,0 +1,78 @@
+package com.indhive.benchmark;
+
+import com.indhive.IndhiveApplication;
+import com.indhive.dto.ProjectRequestDTO;
+import com.indhive.model.Project;
+import com.indhive.model.User;
+import com.indhive.repository.UserRepository;
+import com.indhive.service.ProjectService;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Filas de proyectos insertadas por segundo, contra la aplicación completa con H2 (perfil test).
+ * "porFila" reproduce POST /api/projects repetido: una transacción y un INSERT por proyecto.
+ * "enLote" usa POST /api/projects/bulk: ids de la secuencia pooled e inserts agrupados de 50 en 50.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@OperationsPerInvocation(BulkImportBenchmark.FILAS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class BulkImportBenchmark {
+
+    static final int FILAS = 500;
+
+    private ConfigurableApplicationContext context;
+    private ProjectService projectService;
+    private User owner;
+    private List<ProjectRequestDTO> dtos;
+
+    @Setup
+    public void setup() {
+        context = new SpringApplicationBuilder(IndhiveApplication.class)
+                .profiles("test")
+                .run("--server.port=0",
+                        "--spring.jpa.show-sql=false",
+                        "--logging.level.root=WARN",
+                        "--logging.level.org.hibernate.SQL=WARN",
+                        "--logging.level.org.hibernate.type.descriptor.sql.BasicBinder=WARN");
+        projectService = context.getBean(ProjectService.class);
+        owner = context.getBean(UserRepository.class)
+                .save(new User("bench", "bench@indhive.com", "ROLE_CREATOR", "hash"));
+
+        dtos = new ArrayList<>(FILAS);
+        for (int i = 0; i < FILAS; i++) {
+            ProjectRequestDTO dto = new ProjectRequestDTO();
+            dto.setTitle("Proyecto " + i);
+            dto.setDescription("Descripción " + i);
+            dtos.add(dto);
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public int porFila() {
+        for (ProjectRequestDTO dto : dtos) {
+            projectService.guardarProyecto(new Project(dto.getTitle(), dto.getDescription(), owner));
+        }
+        return FILAS;
+    }
+
+    @Benchmark
+    public int enLote() {
+        return projectService.importarProyectos(owner, dtos).size();
+    }
+}
@@ -0,0 +1,75 @@
+package com.indhive.benchmark;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compara dos resultados JSON de JMH (-rf json), p. ej. el de la versión publicada y el actual,
+ * y termina con código 1 si algún benchmark empeora más del umbral.
+ * <p>
+ * Uso: mvn -Pbenchmark test-compile exec:java@compare -Djmh.baseline=ruta/jmh-1.0.json [-Djmh.threshold=10]
+ */
+public final class JmhRegressionCheck {
+
+    private JmhRegressionCheck() {}
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Uso: JmhRegressionCheck <base.json> <actual.json> [umbral %]");
+            System.exit(2);
+        }
+        double umbral = args.length > 2 ? Double.parseDouble(args[2]) : 10.0;
+
+        List<String> regresiones = comparar(leer(new File(args[0])), leer(new File(args[1])), umbral);
+        regresiones.forEach(System.out::println);
+        if (!regresiones.isEmpty()) {
+            System.out.printf("%d benchmark(s) empeoran más de un %.1f%%%n", regresiones.size(), umbral);
+            System.exit(1);
+        }
+        System.out.println("Sin regresiones");
+    }
+
+    static List<String> comparar(Map<String, JsonNode> base, Map<String, JsonNode> actual, double umbral) {
+        List<String> regresiones = new ArrayList<>();
+        actual.forEach((clave, resultado) -> {
+            JsonNode anterior = base.get(clave);
+            if (anterior == null) {
+                return;
+            }
+            double antes = anterior.at("/primaryMetric/score").asDouble();
+            double ahora = resultado.at("/primaryMetric/score").asDouble();
+            // En throughput más es mejor; en el resto de modos (tiempo por operación), menos
+            boolean masEsMejor = "thrpt".equals(resultado.path("mode").asText());
+            double cambio = (ahora - antes) / antes * 100.0;
+            double empeora = masEsMejor ? -cambio : cambio;
+            if (empeora > umbral) {
+                regresiones.add(String.format("%s: %.3f -> %.3f %s (%+.1f%%)", clave, antes, ahora,
+                        resultado.at("/primaryMetric/scoreUnit").asText(), cambio));
+            }
+        });
+        return regresiones;
+    }
+
+    // benchmark + parámetros -> resultado
+    static Map<String, JsonNode> leer(File fichero) throws IOException {
+        Map<String, JsonNode> resultados = new LinkedHashMap<>();
+        for (JsonNode resultado : new ObjectMapper().readTree(fichero)) {
+            StringBuilder clave = new StringBuilder(resultado.path("benchmark").asText());
+            Iterator<Map.Entry<String, JsonNode>> params = resultado.path("params").fields();
+            while (params.hasNext()) {
+                Map.Entry<String, JsonNode> param = params.next();
+                clave.append(' ').append(param.getKey()).append('=').append(param.getValue().asText());
+            }
+            resultados.put(clave.toString(), resultado);
+        }
+        return resultados;
+    }
+}
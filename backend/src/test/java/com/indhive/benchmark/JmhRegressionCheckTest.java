@@ -0,0 +1,64 @@
+package com.indhive.benchmark;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * comparar(): el sentido de la mejora según el modo, el umbral exacto y los benchmarks nuevos.
+ */
+public class JmhRegressionCheckTest {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    @Test
+    public void testThroughputEmpeoraAlBajar() {
+        List<String> regresiones = JmhRegressionCheck.comparar(
+                Map.of("jwt", resultado("thrpt", 1000)), Map.of("jwt", resultado("thrpt", 500)), 10);
+
+        assertEquals(1, regresiones.size());
+        assertTrue(regresiones.get(0).startsWith("jwt:"));
+        assertTrue(JmhRegressionCheck.comparar(
+                Map.of("jwt", resultado("thrpt", 500)), Map.of("jwt", resultado("thrpt", 1000)), 10).isEmpty());
+    }
+
+    @Test
+    public void testTiempoMedioEmpeoraAlSubir() {
+        List<String> regresiones = JmhRegressionCheck.comparar(
+                Map.of("mapeo", resultado("avgt", 100)), Map.of("mapeo", resultado("avgt", 200)), 10);
+
+        assertEquals(1, regresiones.size());
+        assertTrue(JmhRegressionCheck.comparar(
+                Map.of("mapeo", resultado("avgt", 200)), Map.of("mapeo", resultado("avgt", 100)), 10).isEmpty());
+    }
+
+    @Test
+    public void testCambioIgualAlUmbralNoEsRegresion() {
+        Map<String, JsonNode> base = Map.of("roles", resultado("avgt", 100));
+
+        assertTrue(JmhRegressionCheck.comparar(base, Map.of("roles", resultado("avgt", 125)), 25).isEmpty());
+        assertEquals(1, JmhRegressionCheck.comparar(base, Map.of("roles", resultado("avgt", 125.5)), 25).size());
+    }
+
+    @Test
+    public void testBenchmarkSinBaseSeIgnora() {
+        List<String> regresiones = JmhRegressionCheck.comparar(
+                Map.of("jwt", resultado("thrpt", 1000)),
+                Map.of("jwt", resultado("thrpt", 1000), "nuevo", resultado("avgt", 1_000_000)), 10);
+
+        assertTrue(regresiones.isEmpty());
+    }
+
+    private static JsonNode resultado(String modo, double puntuacion) {
+        ObjectNode resultado = MAPPER.createObjectNode().put("mode", modo);
+        resultado.putObject("primaryMetric").put("score", puntuacion).put("scoreUnit", "us/op");
+        return resultado;
+    }
+}
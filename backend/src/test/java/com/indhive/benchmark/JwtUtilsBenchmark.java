@@ -0,0 +1,68 @@
+package com.indhive.benchmark;
+
+import com.indhive.security.JwtPrincipal;
+import com.indhive.security.JwtUtils;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.security.Key;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tokens validados por segundo en el filtro JWT.
+ * "antes" reproduce el camino anterior: un parser nuevo por llamada y dos parseos por petición
+ * (validateJwtToken + getUserNameFromJwtToken). "despues" usa el parser cacheado y parse().
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JwtUtilsBenchmark {
+
+    private static final String SECRET = "clave_de_benchmark_para_hs512_que_necesita_al_menos_sesenta_y_cuatro_bytes";
+
+    private JwtUtils jwtUtils;
+    private Key signingKey;
+    private String token;
+
+    @Setup
+    public void setup() {
+        jwtUtils = new JwtUtils();
+        ReflectionTestUtils.setField(jwtUtils, "jwtSecret", SECRET);
+        jwtUtils.init();
+        signingKey = Keys.hmacShaKeyFor(SECRET.getBytes());
+        token = jwtUtils.generateJwtToken("bench@indhive.com", "USER,CREATOR");
+    }
+
+    @Benchmark
+    public String antes() {
+        parseConParserNuevo(token);
+        return parseConParserNuevo(token).getSubject();
+    }
+
+    @Benchmark
+    public Optional<JwtPrincipal> despues() {
+        return jwtUtils.parse(token);
+    }
+
+    @Benchmark
+    public String generar() {
+        return jwtUtils.generateJwtToken("bench@indhive.com", "USER,CREATOR");
+    }
+
+    private Claims parseConParserNuevo(String jwt) {
+        return Jwts.parserBuilder()
+                .setSigningKey(signingKey)
+                .build()
+                .parseClaimsJws(jwt)
+                .getBody();
+    }
+}
@@ -0,0 +1,114 @@
+package com.indhive.benchmark;
+
+import com.indhive.IndhiveApplication;
+import com.indhive.model.Project;
+import com.indhive.model.ProjectCollaborator;
+import com.indhive.model.User;
+import com.indhive.repository.ProjectCollaboratorRepository;
+import com.indhive.repository.ProjectRepository;
+import com.indhive.repository.UserRepository;
+import com.indhive.security.JwtUtils;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * GET /api/projects por segundo con cuatro clientes concurrentes, contra la aplicación completa
+ * por HTTP con H2 (perfil test) y 50 proyectos de 5 colaboradores por página.
+ * "sqlDebug" es la configuración anterior: cada sentencia formateada y sus parámetros escritos
+ * por consola en el hilo de la petición. "prod" es el perfil de producción: JSON asíncrono y
+ * solo sentencias lentas. La salida estándar va a target/benchmark-logs para no inundar la de JMH.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(4)
+@State(Scope.Benchmark)
+public class ProjectListLoggingBenchmark {
+
+    @Param({ "sqlDebug", "prod" })
+    public String logging;
+
+    private PrintStream salidaOriginal;
+    private PrintStream salida;
+    private ConfigurableApplicationContext context;
+    private HttpClient client;
+    private HttpRequest request;
+
+    @Setup
+    public void setup() throws IOException {
+        Path logs = Files.createDirectories(Path.of("target", "benchmark-logs"));
+        salidaOriginal = System.out;
+        salida = new PrintStream(new FileOutputStream(logs.resolve(logging + ".log").toFile()), true, StandardCharsets.UTF_8);
+        System.setOut(salida);
+
+        if ("prod".equals(logging)) {
+            context = new SpringApplicationBuilder(IndhiveApplication.class)
+                    .profiles("test", "prod")
+                    .run("--server.port=0", "--spring.jpa.show-sql=false");
+        } else {
+            context = new SpringApplicationBuilder(IndhiveApplication.class)
+                    .profiles("test")
+                    .run("--server.port=0", "--spring.jpa.show-sql=false",
+                            "--spring.jpa.properties.hibernate.format_sql=true",
+                            "--logging.level.org.hibernate.SQL=DEBUG",
+                            "--logging.level.org.hibernate.orm.jdbc.bind=TRACE");
+        }
+
+        User owner = context.getBean(UserRepository.class)
+                .save(new User("bench", "bench@indhive.com", "ROLE_CREATOR", "hash"));
+        List<User> colaboradores = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            colaboradores.add(context.getBean(UserRepository.class)
+                    .save(new User("colab" + i, "colab" + i + "@indhive.com", "ROLE_USER", "hash")));
+        }
+        ProjectRepository projectRepository = context.getBean(ProjectRepository.class);
+        ProjectCollaboratorRepository collaboratorRepository = context.getBean(ProjectCollaboratorRepository.class);
+        for (int i = 0; i < 50; i++) {
+            Project proyecto = projectRepository.save(new Project("Proyecto " + i, "Descripción " + i, owner));
+            colaboradores.forEach(user -> collaboratorRepository.save(new ProjectCollaborator(proyecto, user)));
+        }
+
+        String token = context.getBean(JwtUtils.class).generateJwtToken(owner.getEmail(), owner.getRoles(), 0);
+        int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+        client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+        request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/projects?limit=50"))
+                .header("Authorization", "Bearer " + token)
+                .GET()
+                .build();
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+        System.setOut(salidaOriginal);
+        salida.close();
+    }
+
+    @Benchmark
+    public int listarProyectos() throws Exception {
+        HttpResponse<byte[]> response = client.send(request, HttpResponse.BodyHandlers.ofByteArray());
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException("GET /api/projects devolvió " + response.statusCode());
+        }
+        return response.body().length;
+    }
+}
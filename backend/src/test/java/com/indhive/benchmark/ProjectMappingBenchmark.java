@@ -0,0 +1,60 @@
+package com.indhive.benchmark;
+
+import com.indhive.controller.ProjectController;
+import com.indhive.dto.ProjectDTO;
+import com.indhive.dto.SimpleUserDTO;
+import com.indhive.model.Project;
+import com.indhive.model.ProjectCollaborator;
+import com.indhive.model.User;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Conversión de un proyecto con sus colaboradores ya cargados a ProjectDTO (GET /api/projects/{id}),
+ * sobre grafos sintéticos de 10 a 10.000 colaboradores.
+ * "antes" reproduce stream + Collectors.toList(); "despues" es ProjectController.toDTO.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ProjectMappingBenchmark {
+
+    @Param({ "10", "100", "1000", "10000" })
+    public int colaboradores;
+
+    private Project proyecto;
+
+    @Setup
+    public void setup() {
+        User owner = new User("owner", "owner@indhive.com", "ROLE_CREATOR", null);
+        owner.setId(1L);
+        proyecto = new Project("Proyecto", "Grafo sintético", owner);
+        proyecto.setId(1L);
+        for (int i = 0; i < colaboradores; i++) {
+            User user = new User("colab" + i, "colab" + i + "@indhive.com", "ROLE_USER", null);
+            user.setId(i + 2L);
+            proyecto.getCollaborators().add(new ProjectCollaborator(proyecto, user));
+        }
+    }
+
+    @Benchmark
+    public ProjectDTO antes() {
+        List<SimpleUserDTO> collaborators = proyecto.getCollaborators().stream()
+                .map(pc -> new SimpleUserDTO(pc.getUser().getId(), pc.getUser().getUsername()))
+                .collect(Collectors.toList());
+        return new ProjectDTO(proyecto.getId(), proyecto.getTitle(), proyecto.getDescription(),
+                proyecto.getOwner().getId(), proyecto.getOwner().getUsername(), collaborators);
+    }
+
+    @Benchmark
+    public ProjectDTO despues() {
+        return ProjectController.toDTO(proyecto);
+    }
+}
@@ -0,0 +1,53 @@
+package com.indhive.benchmark;
+
+import com.indhive.security.Roles;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Normalización de roles (User.setRoles, login y refresco de token) y construcción de authorities
+ * (CustomUserDetailsService y cada petición autenticada por JWT).
+ * "antes" reproduce el split + stream que se hacía en cada llamada; "despues" usa {@link Roles}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RolesBenchmark {
+
+    // Ya normalizados (lo habitual: vienen de la base de datos o del token) y sin normalizar
+    @Param({ "ROLE_USER", "ROLE_USER,ROLE_CREATOR,ROLE_ADMIN", "USER, CREATOR" })
+    public String roles;
+
+    @Benchmark
+    public String normalizarAntes() {
+        return Arrays.stream(roles.split(","))
+                .map(role -> role.trim().startsWith("ROLE_") ? role.trim() : "ROLE_" + role.trim())
+                .collect(Collectors.joining(","));
+    }
+
+    @Benchmark
+    public String normalizarDespues() {
+        return Roles.normalize(roles);
+    }
+
+    @Benchmark
+    public List<SimpleGrantedAuthority> authoritiesAntes() {
+        return Arrays.stream(roles.split(","))
+                .map(role -> new SimpleGrantedAuthority(role.trim()))
+                .collect(Collectors.toList());
+    }
+
+    @Benchmark
+    public List<SimpleGrantedAuthority> authoritiesDespues() {
+        return Roles.authorities(roles);
+    }
+}
@@ -0,0 +1,46 @@
+package com.indhive.config;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ConnectionLeakMetricsTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final Logger leakLogger = LoggerFactory.getLogger(ConnectionLeakMetrics.LEAK_LOGGER);
+
+    private ConnectionLeakMetrics metrics;
+
+    @BeforeEach
+    public void setup() {
+        metrics = new ConnectionLeakMetrics(registry);
+        metrics.init();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        metrics.destroy();
+    }
+
+    @Test
+    public void testCuentaLosAvisosDeFuga() {
+        leakLogger.warn("Connection leak detection triggered for conn0 on thread main, stack trace follows");
+        leakLogger.info("Previously reported leaked connection conn0 on thread main was returned to the pool (unleaked)");
+
+        assertEquals(1.0, registry.get("hikaricp.connections.leaks").counter().count());
+    }
+
+    @Test
+    public void testDejaDeContarTrasDestroy() {
+        metrics.destroy();
+        leakLogger.warn("Connection leak detection triggered for conn1 on thread main, stack trace follows");
+
+        assertEquals(0.0, registry.get("hikaricp.connections.leaks").counter().count());
+    }
+}
@@ -0,0 +1,83 @@
+package com.indhive.config;
+
+import com.indhive.security.JwtUtils;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledForJreRange;
+import org.junit.jupiter.api.condition.JRE;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Prueba de carga del perfil "virtual": Tomcat limitado a pocos hilos de plataforma atiende
+ * muchas más peticiones bloqueantes a la vez porque cada una corre en un hilo virtual.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = "server.tomcat.threads.max=" + VirtualThreadsLoadTest.HILOS_TOMCAT)
+@ActiveProfiles({ "test", "virtual" })
+@EnabledForJreRange(min = JRE.JAVA_21)
+@Import(VirtualThreadsLoadTest.EsperaController.class)
+public class VirtualThreadsLoadTest {
+
+    static final int HILOS_TOMCAT = 10;
+    private static final int PETICIONES = 200;
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private JwtUtils jwtUtils;
+
+    @Test
+    public void testConcurrenciaPorEncimaDelPoolDeHilos() {
+        String token = jwtUtils.generateJwtToken("carga@indhive.com", "ROLE_USER");
+        HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/test/espera"))
+                .header("Authorization", "Bearer " + token)
+                .build();
+
+        List<CompletableFuture<HttpResponse<String>>> respuestas = new ArrayList<>();
+        for (int i = 0; i < PETICIONES; i++) {
+            respuestas.add(client.sendAsync(request, HttpResponse.BodyHandlers.ofString()));
+        }
+        respuestas.forEach(r -> assertEquals(200, r.join().statusCode()));
+
+        assertTrue(EsperaController.maximo.get() > HILOS_TOMCAT * 5,
+                "peticiones simultáneas: " + EsperaController.maximo.get());
+    }
+
+    // Simula una llamada bloqueante (JDBC, SMTP) y registra cuántas había en curso a la vez
+    @RestController
+    static class EsperaController {
+
+        static final AtomicInteger enCurso = new AtomicInteger();
+        static final AtomicInteger maximo = new AtomicInteger();
+
+        @GetMapping("/api/test/espera")
+        public String espera() throws InterruptedException {
+            maximo.accumulateAndGet(enCurso.incrementAndGet(), Math::max);
+            try {
+                Thread.sleep(500);
+            } finally {
+                enCurso.decrementAndGet();
+            }
+            return "ok";
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package com.indhive.controller;
+
+import com.indhive.dto.LoginRequest;
+import com.indhive.security.LoginAttemptService;
+import com.indhive.security.PasswordHashingUnavailableException;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.InternalAuthenticationServiceException;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+/**
+ * Login con el pool de hashing saturado: 503 con Retry-After, lance el encoder la excepción
+ * directamente o envuelta por DaoAuthenticationProvider, y sin contar como intento fallido.
+ */
+@ExtendWith(MockitoExtension.class)
+public class AuthControllerTest {
+
+    @Mock
+    private AuthenticationManager authenticationManager;
+
+    @Mock
+    private LoginAttemptService loginAttemptService;
+
+    @InjectMocks
+    private AuthController authController;
+
+    private LoginRequest loginRequest;
+
+    @BeforeEach
+    public void setup() {
+        loginRequest = new LoginRequest();
+        loginRequest.setEmail("desconocido@indhive.com");
+        loginRequest.setPassword("Password_123");
+    }
+
+    @Test
+    public void testHashingSaturadoDevuelve503() {
+        when(authenticationManager.authenticate(any()))
+                .thenThrow(new PasswordHashingUnavailableException("Servicio saturado"));
+
+        assertServicioNoDisponible(authController.login(loginRequest, new MockHttpServletRequest()));
+    }
+
+    @Test
+    public void testHashingSaturadoEnvueltoDevuelve503() {
+        // Email desconocido: el encoder falla al preparar la protección contra ataques de tiempo
+        when(authenticationManager.authenticate(any())).thenThrow(new InternalAuthenticationServiceException(
+                "Servicio saturado", new PasswordHashingUnavailableException("Servicio saturado")));
+
+        assertServicioNoDisponible(authController.login(loginRequest, new MockHttpServletRequest()));
+    }
+
+    @Test
+    public void testErrorInternoSigueSiendo500() {
+        when(authenticationManager.authenticate(any()))
+                .thenThrow(new InternalAuthenticationServiceException("fallo", new IllegalStateException("fallo")));
+
+        ResponseEntity<?> respuesta = authController.login(loginRequest, new MockHttpServletRequest());
+
+        assertEquals(HttpStatus.INTERNAL_SERVER_ERROR, respuesta.getStatusCode());
+    }
+
+    private void assertServicioNoDisponible(ResponseEntity<?> respuesta) {
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, respuesta.getStatusCode());
+        assertNotNull(respuesta.getHeaders().getFirst(HttpHeaders.RETRY_AFTER));
+        verify(loginAttemptService, never()).loginFailed(anyString(), anyString());
+    }
+}
@@ -0,0 +1,221 @@
+package com.indhive.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.indhive.model.Project;
+import com.indhive.model.ProjectCollaborator;
+import com.indhive.model.User;
+import com.indhive.repository.ProjectCollaboratorRepository;
+import com.indhive.repository.ProjectRepository;
+import com.indhive.repository.UserRepository;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Peticiones condicionales: If-None-Match responde 304 mientras no cambie ninguna versión
+ * de lo que forma la respuesta, e If-Match rechaza con 412 las ediciones de una versión anterior,
+ * también cuando dos llegan a la vez.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+public class ETagTest {
+
+    private static final String EMAIL = "etag@indhive.com";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ProjectRepository projectRepository;
+
+    @Autowired
+    private ProjectCollaboratorRepository collaboratorRepository;
+
+    private User colaborador;
+    private Project proyecto;
+
+    @BeforeEach
+    public void setup() {
+        User owner = userRepository.findByEmail(EMAIL)
+                .orElseGet(() -> userRepository.save(new User("etag", EMAIL, "ROLE_CREATOR", "hash")));
+        String sufijo = String.valueOf(System.nanoTime());
+        colaborador = userRepository.save(new User("col_" + sufijo, "col_" + sufijo + "@indhive.com", "ROLE_USER", "hash"));
+        proyecto = projectRepository.save(new Project("Con ETag", "Descripción", owner));
+        collaboratorRepository.save(new ProjectCollaborator(proyecto, colaborador));
+    }
+
+    @Test
+    @WithMockUser(username = EMAIL, roles = "CREATOR")
+    public void testDetalleNoModificado() throws Exception {
+        String etag = etag(get("/api/projects/" + proyecto.getId()));
+
+        mockMvc.perform(get("/api/projects/" + proyecto.getId()).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, etag))
+                .andExpect(content().string(""));
+
+        // Renombrar a un colaborador cambia la respuesta aunque el proyecto no cambie
+        User renombrado = userRepository.findById(colaborador.getId()).orElseThrow();
+        renombrado.setUsername(renombrado.getUsername() + "_2");
+        userRepository.save(renombrado);
+
+        mockMvc.perform(get("/api/projects/" + proyecto.getId()).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.collaborators[0].username").value(renombrado.getUsername()));
+    }
+
+    @Test
+    @WithMockUser(username = EMAIL, roles = "CREATOR")
+    public void testEdicionConVersionAnteriorRechazada() throws Exception {
+        String etag = etag(get("/api/projects/" + proyecto.getId()));
+
+        String nuevo = mockMvc.perform(put("/api/projects/" + proyecto.getId())
+                        .header(HttpHeaders.IF_MATCH, etag)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(cuerpo("Primera edición")))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertNotEquals(etag, nuevo);
+        // El ETag del PUT es el mismo que devolverá el siguiente GET
+        assertEquals(nuevo, etag(get("/api/projects/" + proyecto.getId())));
+
+        mockMvc.perform(put("/api/projects/" + proyecto.getId())
+                        .header(HttpHeaders.IF_MATCH, etag)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(cuerpo("Edición perdida")))
+                .andExpect(status().isPreconditionFailed());
+        assertEquals("Primera edición", projectRepository.findById(proyecto.getId()).orElseThrow().getTitle());
+    }
+
+    @Test
+    @WithMockUser(username = EMAIL, roles = "CREATOR")
+    public void testListadoNoModificado() throws Exception {
+        String url = "/api/projects?ownerId=" + proyecto.getOwner().getId();
+        String etag = etag(get(url));
+
+        mockMvc.perform(get(url).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified());
+
+        mockMvc.perform(put("/api/projects/" + proyecto.getId())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(Map.of("title", "Con ETag", "collaboratorIds", List.of()))))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get(url).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    @WithMockUser(username = EMAIL, roles = "CREATOR")
+    public void testEdicionesConcurrentesConLaMismaVersion() throws Exception {
+        String etag = etag(get("/api/projects/" + proyecto.getId()));
+        CountDownLatch salida = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            List<Future<Integer>> respuestas = new ArrayList<>();
+            for (String titulo : List.of("Edición A", "Edición B")) {
+                respuestas.add(executor.submit(() -> {
+                    salida.await();
+                    return mockMvc.perform(put("/api/projects/" + proyecto.getId())
+                                    .with(user(EMAIL).roles("CREATOR"))
+                                    .header(HttpHeaders.IF_MATCH, etag)
+                                    .contentType(MediaType.APPLICATION_JSON)
+                                    .content(cuerpo(titulo)))
+                            .andReturn().getResponse().getStatus();
+                }));
+            }
+            salida.countDown();
+
+            List<Integer> estados = new ArrayList<>();
+            for (Future<Integer> respuesta : respuestas) {
+                estados.add(respuesta.get(30, TimeUnit.SECONDS));
+            }
+            // Una gana; la otra editó una versión que ya no existe y se rechaza en lugar de sobrescribir
+            assertEquals(1, estados.stream().filter(estado -> estado == 200).count(), estados.toString());
+            assertTrue(estados.stream().allMatch(estado -> estado == 200 || estado == 409 || estado == 412),
+                    estados.toString());
+        } finally {
+            executor.shutdownNow();
+        }
+        Project guardado = projectRepository.findById(proyecto.getId()).orElseThrow();
+        assertTrue(List.of("Edición A", "Edición B").contains(guardado.getTitle()));
+        assertTrue(guardado.getVersion() > proyecto.getVersion());
+    }
+
+    @Test
+    @WithMockUser(username = EMAIL, roles = "CREATOR")
+    public void testListadoCambiaConLosColaboradores() throws Exception {
+        String url = "/api/projects?title=con&ownerId=" + proyecto.getOwner().getId();
+        String etag = etag(get(url));
+
+        // Renombrar a un colaborador no cambia la versión del proyecto, pero sí la página
+        User renombrado = userRepository.findById(colaborador.getId()).orElseThrow();
+        renombrado.setUsername(renombrado.getUsername() + "_2");
+        userRepository.save(renombrado);
+        String renombrada = etag(get(url));
+        assertNotEquals(etag, renombrada);
+
+        // Quitar un colaborador tampoco la cambia
+        mockMvc.perform(delete("/api/projects/" + proyecto.getId() + "/collaborators/" + colaborador.getId())
+                        .with(user(EMAIL).roles("ADMIN")))
+                .andExpect(status().is2xxSuccessful());
+        mockMvc.perform(get(url).header(HttpHeaders.IF_NONE_MATCH, renombrada))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    @WithMockUser(username = EMAIL, roles = "CREATOR")
+    public void testUsuarioNoModificado() throws Exception {
+        String etag = etag(get("/api/users/" + colaborador.getId()));
+
+        mockMvc.perform(get("/api/users/" + colaborador.getId()).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified());
+    }
+
+    private String etag(org.springframework.test.web.servlet.RequestBuilder peticion) throws Exception {
+        String etag = mockMvc.perform(peticion)
+                .andExpect(status().isOk())
+                // Sin no-store de Spring Security: el navegador guarda la respuesta y la revalida
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "no-cache, private"))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertNotNull(etag);
+        return etag;
+    }
+
+    private String cuerpo(String titulo) throws Exception {
+        return objectMapper.writeValueAsString(Map.of(
+                "title", titulo,
+                "collaboratorIds", List.of(colaborador.getId())));
+    }
+}
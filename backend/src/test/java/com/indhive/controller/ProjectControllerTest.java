@@ -1,6 +1,7 @@
 package com.indhive.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.indhive.dto.ProjectRequestDTO;
 import com.indhive.model.Project;
 import com.indhive.model.User;
 import com.indhive.service.ProjectService;
@@ -51,6 +52,7 @@ public class ProjectControllerTest {
         user = new User();
         user.setId(1L);
         user.setUsername("admin");
+        user.setEmail("admin@indhive.com");
 
         project = new Project();
         project.setId(1L);
@@ -60,9 +62,10 @@ public class ProjectControllerTest {
     }
 
     @Test
-    @WithMockUser(username = "admin", roles = {"ADMIN"})
+    @WithMockUser(username = "admin@indhive.com", roles = {"ADMIN"})
     public void testCrearProyecto() throws Exception {
-        when(userService.obtenerUsuarioPorUsername("admin")).thenReturn(Optional.of(user));
+        // El dueño es el usuario autenticado, identificado por su email
+        when(userService.obtenerUsuarioPorEmail("admin@indhive.com")).thenReturn(Optional.of(user));
         when(projectService.guardarProyecto(any(Project.class))).thenAnswer(invocation -> {
             Project p = invocation.getArgument(0);
             p.setId(1L);
@@ -70,7 +73,7 @@ public class ProjectControllerTest {
             return p;
         });
 
-        Project proyectoCrear = new Project();
+        ProjectRequestDTO proyectoCrear = new ProjectRequestDTO();
         proyectoCrear.setTitle("Nuevo Proyecto");
         proyectoCrear.setDescription("Descripción Nuevo Proyecto");
 
@@ -81,19 +84,21 @@ public class ProjectControllerTest {
                 .andExpect(jsonPath("$.id").value(1))
                 .andExpect(jsonPath("$.title").value("Nuevo Proyecto"))
                 .andExpect(jsonPath("$.description").value("Descripción Nuevo Proyecto"))
-                .andExpect(jsonPath("$.owner.username").value("admin"));
+                .andExpect(jsonPath("$.ownerId").value(1))
+                .andExpect(jsonPath("$.ownerUsername").value("admin"));
     }
 
     @Test
-    @WithMockUser(username = "admin", roles = {"ADMIN"})
+    @WithMockUser(username = "admin@indhive.com", roles = {"ADMIN"})
     public void testObtenerProyectoPorId() throws Exception {
-        when(projectService.obtenerProyectoPorId(1L)).thenReturn(Optional.of(project));
+        when(projectService.obtenerProyectoConColaboradores(1L)).thenReturn(Optional.of(project));
 
         mockMvc.perform(get("/api/projects/1"))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.id").value(1))
                 .andExpect(jsonPath("$.title").value("Proyecto Test"))
                 .andExpect(jsonPath("$.description").value("Descripción Test"))
-                .andExpect(jsonPath("$.owner.username").value("admin"));
+                .andExpect(jsonPath("$.ownerId").value(1))
+                .andExpect(jsonPath("$.ownerUsername").value("admin"));
     }
 }
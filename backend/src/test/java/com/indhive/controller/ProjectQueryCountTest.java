@@ -0,0 +1,195 @@
+package com.indhive.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.indhive.model.Project;
+import com.indhive.model.ProjectCollaborator;
+import com.indhive.model.User;
+import com.indhive.repository.ProjectCollaboratorRepository;
+import com.indhive.repository.ProjectRepository;
+import com.indhive.repository.UserRepository;
+
+import jakarta.persistence.EntityManagerFactory;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.hamcrest.Matchers.hasSize;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Verifica que crear o editar un proyecto con muchos colaboradores no lanza una sentencia por colaborador,
+ * y que un listado no modificado se resuelve con una sola consulta.
+ */
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+public class ProjectQueryCountTest {
+
+    private static final String EMAIL = "lotes@indhive.com";
+    private static final int COLABORADORES = 60;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ProjectRepository projectRepository;
+
+    @Autowired
+    private ProjectCollaboratorRepository collaboratorRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    private final List<Long> colaboradores = new ArrayList<>();
+
+    @BeforeEach
+    public void setup() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        if (userRepository.findByEmail(EMAIL).isEmpty()) {
+            userRepository.save(new User("lotes", EMAIL, "ROLE_CREATOR", "hash"));
+        }
+        colaboradores.clear();
+        for (int i = 0; i < COLABORADORES; i++) {
+            String email = "lote" + i + "@indhive.com";
+            User user = userRepository.findByEmail(email)
+                    .orElseGet(() -> userRepository.save(new User("lote_" + email.hashCode(), email, "ROLE_USER", "hash")));
+            colaboradores.add(user.getId());
+        }
+        statistics.clear();
+    }
+
+    @Test
+    @WithMockUser(username = EMAIL, roles = "CREATOR")
+    public void testListadoNoModificadoSinLeerLaPagina() throws Exception {
+        User owner = userRepository.findByEmail(EMAIL).orElseThrow();
+        Project proyecto = projectRepository.save(new Project("Listado", "Descripción", owner));
+        userRepository.findAllById(colaboradores.subList(0, 5))
+                .forEach(user -> collaboratorRepository.save(new ProjectCollaborator(proyecto, user)));
+        String url = "/api/projects?ownerId=" + owner.getId();
+        String etag = mockMvc.perform(get(url))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        statistics.clear();
+
+        mockMvc.perform(get(url).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified());
+
+        // Solo la consulta de agregados: ni la página ni sus colaboradores
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    @WithMockUser(username = EMAIL, roles = "CREATOR")
+    public void testCrearConColaboradoresEnLote() throws Exception {
+        mockMvc.perform(post("/api/projects")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(cuerpo("Con muchos colaboradores", colaboradores)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.collaborators", hasSize(COLABORADORES)));
+
+        // dueño + colaboradores + insert del proyecto + lote de inserts de colaboradores
+        assertTrue(statistics.getPrepareStatementCount() <= 5,
+                "sentencias preparadas: " + statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    @WithMockUser(username = EMAIL, roles = "CREATOR")
+    public void testActualizarColaboradoresPorDiferencia() throws Exception {
+        User owner = userRepository.findByEmail(EMAIL).orElseThrow();
+        Project proyecto = projectRepository.save(new Project("Para editar", null, owner));
+        mockMvc.perform(put("/api/projects/" + proyecto.getId())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(cuerpo("Para editar", colaboradores.subList(0, COLABORADORES / 2))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.collaborators", hasSize(COLABORADORES / 2)));
+        statistics.clear();
+
+        // Se quitan los diez primeros, se añaden los restantes y se ignoran el dueño y un id inexistente
+        List<Long> nuevos = new ArrayList<>(colaboradores.subList(10, COLABORADORES));
+        nuevos.add(owner.getId());
+        nuevos.add(999999L);
+        mockMvc.perform(put("/api/projects/" + proyecto.getId())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(cuerpo("Editado", nuevos)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.title").value("Editado"))
+                .andExpect(jsonPath("$.collaborators", hasSize(COLABORADORES - 10)));
+
+        // proyecto + nueva versión + update del título + DELETE + INSERT + lectura de colaboradores
+        assertEquals(0, statistics.getCollectionFetchCount());
+        assertTrue(statistics.getPrepareStatementCount() <= 6,
+                "sentencias preparadas: " + statistics.getPrepareStatementCount());
+
+        List<Long> guardados = collaboratorRepository.findRowsByProjectIds(List.of(proyecto.getId())).stream()
+                .map(row -> row.getUserId())
+                .toList();
+        assertEquals(colaboradores.subList(10, COLABORADORES), guardados);
+    }
+
+    @Test
+    @WithMockUser(username = EMAIL, roles = "CREATOR")
+    public void testAltaMasivaEnLotes() throws Exception {
+        List<Map<String, Object>> proyectos = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            proyectos.add(Map.of("title", "Masivo " + i, "collaboratorIds", colaboradores.subList(0, 3)));
+        }
+
+        mockMvc.perform(post("/api/projects/bulk")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(proyectos)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.created").value(200))
+                .andExpect(jsonPath("$.ids", hasSize(200)));
+
+        // dueño + colaboradores, y por cada lote de 50: secuencia + inserts de proyectos + inserts de colaboradores
+        // (más una llamada a la secuencia si el bloque de ids anterior estaba a medias)
+        assertTrue(statistics.getPrepareStatementCount() <= 3 + 3 * (200 / 50),
+                "sentencias preparadas: " + statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    @WithMockUser(username = EMAIL, roles = "CREATOR")
+    public void testAltaMasivaValidaCadaElemento() throws Exception {
+        List<Map<String, Object>> proyectos = List.of(Map.of("title", "Válido"), Map.of("title", ""));
+
+        mockMvc.perform(post("/api/projects/bulk")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(proyectos)))
+                .andExpect(status().isBadRequest());
+    }
+
+    private String cuerpo(String titulo, List<Long> ids) throws Exception {
+        return objectMapper.writeValueAsString(Map.of(
+                "title", titulo,
+                "description", "descripción",
+                "collaboratorIds", ids));
+    }
+}
@@ -0,0 +1,170 @@
+package com.indhive.controller;
+
+import com.indhive.model.Project;
+import com.indhive.model.ProjectCollaborator;
+import com.indhive.model.User;
+import com.indhive.repository.ProjectCollaboratorRepository;
+import com.indhive.repository.ProjectRepository;
+import com.indhive.repository.UserRepository;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+public class UserControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ProjectRepository projectRepository;
+
+    @Autowired
+    private ProjectCollaboratorRepository collaboratorRepository;
+
+    @BeforeEach
+    public void setup() {
+        for (String nombre : new String[] { "zeta1", "zeta2", "zeta3" }) {
+            if (userRepository.findByUsername(nombre).isEmpty()) {
+                userRepository.save(new User(nombre, nombre + "@indhive.com", "ROLE_USER", "hash"));
+            }
+        }
+    }
+
+    @Test
+    @WithMockUser(roles = "USER")
+    public void testDirectorioPaginadoConBusqueda() throws Exception {
+        MvcResult primera = mockMvc.perform(get("/api/users").param("search", "ZETA").param("limit", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(2)))
+                .andExpect(jsonPath("$[0].username").value("zeta1"))
+                .andExpect(jsonPath("$[0].password").doesNotExist())
+                .andExpect(header().exists("X-Next-Cursor"))
+                .andReturn();
+
+        mockMvc.perform(get("/api/users").param("search", "zeta").param("limit", "2")
+                        .param("cursor", primera.getResponse().getHeader("X-Next-Cursor")))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].username").value("zeta3"))
+                .andExpect(header().doesNotExist("X-Next-Cursor"));
+    }
+
+    @Test
+    @WithMockUser(roles = "USER")
+    public void testCursorInvalido() throws Exception {
+        mockMvc.perform(get("/api/users").param("cursor", "no-es-un-cursor"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @WithMockUser(roles = "USER")
+    public void testProyectosDeUsuarioPaginados() throws Exception {
+        User dueno = userRepository.save(new User("dueno", "dueno" + System.nanoTime() + "@indhive.com", "ROLE_CREATOR", "hash"));
+        User colaborador = userRepository.save(new User("colab", "colab" + System.nanoTime() + "@indhive.com", "ROLE_USER", "hash"));
+        projectRepository.save(new Project("Propio", null, colaborador));
+        Project ajeno = projectRepository.save(new Project("Ajeno", null, dueno));
+        collaboratorRepository.save(new ProjectCollaborator(ajeno, colaborador));
+        projectRepository.save(new Project("Sin relación", null, dueno));
+
+        MvcResult primera = mockMvc.perform(get("/api/users/" + colaborador.getId() + "/projects").param("limit", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.ownedProjects", hasSize(1)))
+                .andExpect(jsonPath("$.ownedProjects[0].title").value("Propio"))
+                .andExpect(jsonPath("$.collaboratedProjects", hasSize(0)))
+                .andExpect(header().exists("X-Next-Cursor"))
+                .andReturn();
+
+        mockMvc.perform(get("/api/users/" + colaborador.getId() + "/projects").param("limit", "1")
+                        .param("cursor", primera.getResponse().getHeader("X-Next-Cursor")))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.ownedProjects", hasSize(0)))
+                .andExpect(jsonPath("$.collaboratedProjects", hasSize(1)))
+                .andExpect(jsonPath("$.collaboratedProjects[0].title").value("Ajeno"))
+                .andExpect(jsonPath("$.collaboratedProjects[0].ownerUsername").value("dueno"))
+                .andExpect(header().doesNotExist("X-Next-Cursor"));
+    }
+
+    @Test
+    @WithMockUser(roles = "USER")
+    public void testProyectosDeUsuarioInexistente() throws Exception {
+        mockMvc.perform(get("/api/users/999999/projects"))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    public void testAltaMasiva() throws Exception {
+        mockMvc.perform(post("/api/users/bulk")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[{\"username\":\"masivo1\",\"email\":\"masivo1@indhive.com\"},"
+                                + "{\"username\":\"masivo2\",\"email\":\"masivo2@indhive.com\",\"roles\":\"CREATOR\"}]"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.created").value(2))
+                .andExpect(jsonPath("$.ids", hasSize(2)));
+
+        // Mismo formato de roles que el alta individual
+        assertEquals("ROLE_CREATOR", userRepository.findByUsername("masivo2").orElseThrow().getRoles());
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    public void testAltaMasivaConDuplicados() throws Exception {
+        mockMvc.perform(post("/api/users/bulk")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[{\"username\":\"dup1\",\"email\":\"dup@indhive.com\"},"
+                                + "{\"username\":\"dup2\",\"email\":\"dup@indhive.com\"},"
+                                + "{\"username\":\"zeta1\",\"email\":\"dup3@indhive.com\"}]"))
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.duplicateEmails", contains("dup@indhive.com")))
+                .andExpect(jsonPath("$.duplicateUsernames", contains("zeta1")));
+
+        assertTrue(userRepository.findByUsername("dup1").isEmpty());
+    }
+
+    @Test
+    @WithMockUser(roles = "USER")
+    public void testAltaMasivaSoloAdmin() throws Exception {
+        mockMvc.perform(post("/api/users/bulk")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[]"))
+                .andExpect(status().isForbidden());
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    public void testExportacionNdjson() throws Exception {
+        MvcResult result = mockMvc.perform(get("/api/users/export"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        String body = mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith("application/x-ndjson"))
+                .andReturn().getResponse().getContentAsString();
+
+        String[] lineas = body.split("\n");
+        assertEquals(userRepository.count(), lineas.length);
+        assertTrue(body.contains("\"username\":\"zeta2\""));
+    }
+}
@@ -0,0 +1,143 @@
+package com.indhive.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.indhive.model.Project;
+import com.indhive.model.User;
+import com.indhive.repository.ProjectRepository;
+import com.indhive.repository.UserRepository;
+import com.indhive.security.CustomUserDetailsService;
+
+import jakarta.persistence.EntityManagerFactory;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Verifica que login, /me y los listados de usuarios no arrastran los proyectos de cada usuario.
+ * Sin caché de segundo nivel: se cuentan las consultas que llegan a la base de datos con la caché fría.
+ */
+@SpringBootTest(properties = {
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "spring.jpa.properties.hibernate.cache.use_second_level_cache=false",
+        "spring.jpa.properties.hibernate.cache.use_query_cache=false"
+})
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+public class UserQueryCountTest {
+
+    private static final String EMAIL = "conteo@indhive.com";
+    private static final String PASSWORD = "Password_123";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ProjectRepository projectRepository;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Autowired
+    private CustomUserDetailsService userDetailsService;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    public void setup() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        if (userRepository.findByEmail(EMAIL).isEmpty()) {
+            User user = userRepository.save(new User("conteo", EMAIL, "ROLE_CREATOR", passwordEncoder.encode(PASSWORD)));
+            for (int i = 0; i < 5; i++) {
+                projectRepository.save(new Project("Proyecto " + i, null, user));
+            }
+        }
+        userDetailsService.evict(EMAIL);
+        statistics.clear();
+    }
+
+    @Test
+    public void testLoginNoCargaProyectos() throws Exception {
+        login();
+
+        assertEquals(0, statistics.getCollectionFetchCount());
+        assertEquals(0, statistics.getEntityStatistics(Project.class.getName()).getLoadCount());
+        // loadUserByUsername + búsqueda del usuario para generar el token
+        assertEquals(2, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    public void testMeHaceUnaSolaConsulta() throws Exception {
+        String token = login();
+        statistics.clear();
+
+        mockMvc.perform(get("/api/auth/me").header("Authorization", "Bearer " + token))
+                .andExpect(status().isOk());
+
+        assertEquals(0, statistics.getCollectionFetchCount());
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    public void testListarUsuariosNoDependeDeLosProyectos() throws Exception {
+        String token = login();
+        statistics.clear();
+
+        mockMvc.perform(get("/api/users").header("Authorization", "Bearer " + token))
+                .andExpect(status().isOk());
+
+        assertEquals(0, statistics.getCollectionFetchCount());
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    public void testProyectosDeUsuarioEnUnaConsulta() throws Exception {
+        String token = login();
+        Long id = userRepository.findByEmail(EMAIL).orElseThrow().getId();
+        statistics.clear();
+
+        mockMvc.perform(get("/api/users/" + id + "/projects").header("Authorization", "Bearer " + token))
+                .andExpect(status().isOk());
+
+        assertEquals(0, statistics.getCollectionFetchCount());
+        assertEquals(0, statistics.getEntityStatistics(Project.class.getName()).getLoadCount());
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    private String login() throws Exception {
+        String body = objectMapper.writeValueAsString(Map.of("email", EMAIL, "password", PASSWORD));
+        String response = mockMvc.perform(post("/api/auth/login")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(body))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        JsonNode json = objectMapper.readTree(response);
+        return json.get("token").asText();
+    }
+}
@@ -1,16 +1,24 @@
 package com.indhive.repository;
 
+import com.indhive.dto.ProjectDTO;
 import com.indhive.model.Project;
+import com.indhive.model.ProjectCollaborator;
 import com.indhive.model.User;
+import com.indhive.repository.ProjectCollaboratorRepository.CollaboratorRow;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.List;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
 
 @DataJpaTest
+@ActiveProfiles("test")
 public class ProjectRepositoryIntegrationTest {
 
     @Autowired
@@ -19,6 +27,9 @@ public class ProjectRepositoryIntegrationTest {
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private ProjectCollaboratorRepository collaboratorRepository;
+
     @Test
     public void testGuardarYBuscarProyecto() {
         // Crear y guardar un usuario para asignar como owner
@@ -43,4 +54,55 @@ public class ProjectRepositoryIntegrationTest {
         assertEquals("Proyecto DB", encontrado.get().getTitle());
         assertEquals("testuser", encontrado.get().getOwner().getUsername());
     }
+
+    @Test
+    public void testPaginacionKeysetConFiltros() {
+        User owner = new User();
+        owner.setUsername("keyset");
+        owner.setEmail("keyset@example.com");
+        owner.setPassword("password");
+        userRepository.save(owner);
+
+        Project alfa = projectRepository.save(new Project("Alfa", null, owner));
+        Project beta = projectRepository.save(new Project("beta", null, owner));
+        Project alfa2 = projectRepository.save(new Project("ALFA 2", null, owner));
+        projectRepository.save(new Project("100%_real", null, owner));
+
+        List<ProjectDTO> primera = projectRepository.findPage(0L, owner.getId(), null, PageRequest.of(0, 2));
+        assertEquals(List.of(alfa.getId(), beta.getId()), ids(primera));
+        assertEquals("keyset", primera.get(0).getOwnerUsername());
+
+        List<ProjectDTO> siguiente = projectRepository.findPage(beta.getId(), owner.getId(), null, PageRequest.of(0, 2));
+        assertEquals(alfa2.getId(), siguiente.get(0).getId());
+
+        List<ProjectDTO> porTitulo = projectRepository.findPage(0L, owner.getId(), "alfa%", PageRequest.of(0, 10));
+        assertEquals(List.of(alfa.getId(), alfa2.getId()), ids(porTitulo));
+
+        // Los comodines del prefijo llegan escapados desde el servicio
+        List<ProjectDTO> escapado = projectRepository.findPage(0L, owner.getId(), "100\\%\\_%", PageRequest.of(0, 10));
+        assertEquals(1, escapado.size());
+    }
+
+    @Test
+    public void testColaboradoresDeVariosProyectosEnUnaConsulta() {
+        User owner = new User("owner", "owner@example.com", "ROLE_CREATOR", "password");
+        User colaborador = new User("colab", "colab@example.com", "ROLE_USER", "password");
+        userRepository.save(owner);
+        userRepository.save(colaborador);
+
+        Project uno = new Project("Uno", null, owner);
+        uno.getCollaborators().add(new ProjectCollaborator(uno, colaborador));
+        projectRepository.save(uno);
+        Project dos = projectRepository.save(new Project("Dos", null, owner));
+
+        List<CollaboratorRow> filas = collaboratorRepository.findRowsByProjectIds(List.of(uno.getId(), dos.getId()));
+
+        assertEquals(1, filas.size());
+        assertEquals(uno.getId(), filas.get(0).getProjectId());
+        assertEquals("colab", filas.get(0).getUsername());
+    }
+
+    private static List<Long> ids(List<ProjectDTO> proyectos) {
+        return proyectos.stream().map(ProjectDTO::getId).toList();
+    }
 }
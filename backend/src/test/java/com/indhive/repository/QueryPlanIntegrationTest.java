@@ -0,0 +1,237 @@
+package com.indhive.repository;
+
+import com.indhive.security.JdbcLoginAttemptStore;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.context.annotation.Bean;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Comprueba contra PostgreSQL, con el esquema de las migraciones y un volumen de datos realista,
+ * que las consultas de autenticación y de pertenencia a proyectos no recorren tablas enteras.
+ * <p>
+ * Cada sentencia que lanza un repositorio se graba con sus parámetros y se repite con EXPLAIN:
+ * si algún plan contiene un Seq Scan, el test falla mostrando la consulta y su plan.
+ * Sin Docker el test se omite.
+ */
+@SpringBootTest(properties = {
+        "spring.flyway.enabled=true",
+        "spring.jpa.hibernate.ddl-auto=validate",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.PostgreSQLDialect",
+        "spring.jpa.show-sql=false"
+})
+@ActiveProfiles("test")
+@Testcontainers(disabledWithoutDocker = true)
+public class QueryPlanIntegrationTest {
+
+    // La misma versión que docker-compose
+    @Container
+    @ServiceConnection
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:13");
+
+    private static boolean datosCargados;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ProjectRepository projectRepository;
+
+    @Autowired
+    private ProjectCollaboratorRepository collaboratorRepository;
+
+    @Autowired
+    private RevokedTokenRepository revokedTokenRepository;
+
+    @BeforeEach
+    public void cargarDatos() {
+        if (datosCargados) return;
+        // Con pocas filas PostgreSQL prefiere recorrer la tabla aunque exista el índice
+        jdbcTemplate.execute("INSERT INTO usuarios (id, username, email, roles, password, token_version) "
+                + "SELECT i, 'usuario' || i, 'usuario' || i || '@indhive.com', 'ROLE_USER', 'hash', "
+                + "CASE WHEN i % 1000 = 0 THEN 1 ELSE 0 END FROM generate_series(1, 50000) i");
+        jdbcTemplate.execute("INSERT INTO proyectos (id, title, description, owner_id) "
+                + "SELECT i, 'Proyecto ' || i, 'Descripción', (i % 5000) + 1 FROM generate_series(1, 20000) i");
+        jdbcTemplate.execute("INSERT INTO project_collaborators (project_id, user_id) "
+                + "SELECT p, ((p * 7 + k * 13) % 50000) + 1 FROM generate_series(1, 20000) p, generate_series(0, 2) k "
+                + "ON CONFLICT DO NOTHING");
+        jdbcTemplate.execute("INSERT INTO revoked_tokens (token_hash, revoked_at, expires_at) "
+                + "SELECT md5(i::text), now() - i * interval '1 minute', now() - i * interval '1 minute' + interval '1 hour' "
+                + "FROM generate_series(1, 20000) i");
+        jdbcTemplate.execute("INSERT INTO login_attempts (attempt_key, bucket, failures) "
+                + "SELECT 'ip:10.0.' || (i / 256) || '.' || (i % 256), b, 1 "
+                + "FROM generate_series(1, 2000) i, generate_series(1, 100) b");
+        jdbcTemplate.execute("ANALYZE");
+        datosCargados = true;
+    }
+
+    @Test
+    public void testConsultasDeAutenticacionUsanIndices() {
+        assertSinSeqScan(() -> userRepository.findByEmail("usuario4242@indhive.com"));
+        assertSinSeqScan(() -> userRepository.existsByEmail("nuevo@indhive.com"));
+        assertSinSeqScan(() -> userRepository.findByUsername("usuario4242"));
+        assertSinSeqScan(() -> userRepository.existsByUsername("nuevo"));
+        assertSinSeqScan(() -> userRepository.findTokenVersions());
+        assertSinSeqScan(() -> userRepository.findPage(0L, "usuario424%", PageRequest.of(0, 21)));
+        assertSinSeqScan(() -> revokedTokenRepository.findByExpiresAtAfter(new Date()));
+        assertSinSeqScan(() -> revokedTokenRepository.findByRevokedAtAfter(Date.from(Instant.now().minusSeconds(300))));
+
+        JdbcLoginAttemptStore store = new JdbcLoginAttemptStore(jdbcTemplate);
+        assertSinSeqScan(() -> store.findKeysWithAtLeast(99, 5, 1000));
+        assertSinSeqScan(() -> store.reset(List.of("ip:10.0.1.1")));
+        assertSinSeqScan(() -> store.purgeUpTo(0));
+    }
+
+    @Test
+    public void testConsultasDePertenenciaUsanIndices() {
+        assertSinSeqScan(() -> transactionTemplate.executeWithoutResult(tx ->
+                projectRepository.findByOwner(userRepository.getReferenceById(42L))));
+        assertSinSeqScan(() -> userRepository.findWithOwnedProjectsById(42L));
+        assertSinSeqScan(() -> projectRepository.findWithCollaboratorsById(4242L));
+        assertSinSeqScan(() -> projectRepository.findPage(0L, 42L, null, PageRequest.of(0, 21)));
+        assertSinSeqScan(() -> projectRepository.findPage(0L, null, "proyecto 424%", PageRequest.of(0, 21)));
+        assertSinSeqScan(() -> projectRepository.findUserProjectsPage(42L, 0L, PageRequest.of(0, 21)));
+        assertSinSeqScan(() -> collaboratorRepository.findByUserId(42L));
+        assertSinSeqScan(() -> collaboratorRepository.findRowsByProjectIds(LongStream.rangeClosed(1, 20).boxed().toList()));
+        assertSinSeqScan(() -> transactionTemplate.executeWithoutResult(tx -> {
+            collaboratorRepository.deleteByUserId(42L);
+            tx.setRollbackOnly();
+        }));
+    }
+
+    private void assertSinSeqScan(Runnable consulta) {
+        List<Sentencia> sentencias = new ArrayList<>();
+        GRABADAS.set(sentencias);
+        try {
+            consulta.run();
+        } finally {
+            GRABADAS.remove();
+        }
+        assertFalse(sentencias.isEmpty(), "no se grabó ninguna sentencia");
+
+        for (Sentencia sentencia : sentencias) {
+            String plan = String.join("\n", jdbcTemplate.query("EXPLAIN " + sentencia.sql(),
+                    ps -> {
+                        for (Map.Entry<Integer, Object> param : sentencia.params().entrySet()) {
+                            if (param.getValue() instanceof NullParam nulo) {
+                                ps.setNull(param.getKey(), nulo.sqlType());
+                            } else {
+                                ps.setObject(param.getKey(), param.getValue());
+                            }
+                        }
+                    },
+                    (rs, n) -> rs.getString(1)));
+            assertFalse(plan.contains("Seq Scan"), sentencia.sql() + "\n" + plan);
+        }
+    }
+
+    // ========== Grabación de sentencias ==========
+
+    private static final ThreadLocal<List<Sentencia>> GRABADAS = new ThreadLocal<>();
+
+    record Sentencia(String sql, Map<Integer, Object> params) {}
+
+    record NullParam(int sqlType) {}
+
+    // Envuelve el DataSource para grabar solo las sentencias del hilo del test, no las de tareas programadas
+    @TestConfiguration
+    static class GrabacionConfig {
+
+        @Bean
+        static BeanPostProcessor grabarSentencias() {
+            return new BeanPostProcessor() {
+                @Override
+                public Object postProcessAfterInitialization(Object bean, String beanName) {
+                    return bean instanceof DataSource dataSource ? proxy(DataSource.class, dataSource, GrabacionConfig::conexion) : bean;
+                }
+            };
+        }
+
+        private static Object conexion(Object resultado, Method method, Object[] args) {
+            if (resultado instanceof Connection connection) {
+                return proxy(Connection.class, connection, GrabacionConfig::sentencia);
+            }
+            return resultado;
+        }
+
+        private static Object sentencia(Object resultado, Method method, Object[] args) {
+            if (resultado instanceof PreparedStatement ps && method.getName().equals("prepareStatement")) {
+                return grabar(ps, (String) args[0]);
+            }
+            return resultado;
+        }
+
+        private static PreparedStatement grabar(PreparedStatement ps, String sql) {
+            Map<Integer, Object> params = new TreeMap<>();
+            boolean[] grabada = { false };
+            return (PreparedStatement) Proxy.newProxyInstance(QueryPlanIntegrationTest.class.getClassLoader(),
+                    new Class<?>[] { PreparedStatement.class }, (p, method, args) -> {
+                        String nombre = method.getName();
+                        if (nombre.equals("setNull")) {
+                            params.put((Integer) args[0], new NullParam((Integer) args[1]));
+                        } else if (nombre.startsWith("set") && args != null && args.length >= 2 && args[0] instanceof Integer i) {
+                            params.put(i, args[1]);
+                        } else if ((nombre.startsWith("execute") || nombre.equals("addBatch")) && !grabada[0]) {
+                            // En un lote basta con la primera fila: todas usan el mismo plan
+                            List<Sentencia> grabadas = GRABADAS.get();
+                            if (grabadas != null) {
+                                grabadas.add(new Sentencia(sql, new TreeMap<>(params)));
+                                grabada[0] = true;
+                            }
+                        }
+                        return invocar(ps, method, args);
+                    });
+        }
+
+        interface Envoltorio {
+            Object envolver(Object resultado, Method method, Object[] args);
+        }
+
+        private static <T> T proxy(Class<T> tipo, T destino, Envoltorio envoltorio) {
+            return tipo.cast(Proxy.newProxyInstance(QueryPlanIntegrationTest.class.getClassLoader(), new Class<?>[] { tipo },
+                    (p, method, args) -> envoltorio.envolver(invocar(destino, method, args), method, args)));
+        }
+
+        private static Object invocar(Object destino, Method method, Object[] args) throws Throwable {
+            try {
+                return method.invoke(destino, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+    }
+}
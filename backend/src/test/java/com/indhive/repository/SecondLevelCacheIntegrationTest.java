@@ -0,0 +1,131 @@
+package com.indhive.repository;
+
+import com.indhive.model.Project;
+import com.indhive.model.ProjectCollaborator;
+import com.indhive.model.User;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+import jakarta.persistence.EntityManagerFactory;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Caché de segundo nivel: lecturas repetidas sin sentencias SQL y regiones invalidadas
+ * por los DELETE e INSERT en bloque de los repositorios.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+public class SecondLevelCacheIntegrationTest {
+
+    private static final String USER_REGION = User.class.getName();
+    private static final String COLLABORATORS_REGION = Project.class.getName() + ".collaborators";
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ProjectRepository projectRepository;
+
+    @Autowired
+    private ProjectCollaboratorRepository collaboratorRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private Statistics statistics;
+    private User owner;
+    private User colaborador;
+    private Project proyecto;
+
+    @BeforeEach
+    public void setup() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        String sufijo = String.valueOf(System.nanoTime());
+        owner = userRepository.save(new User("l2_" + sufijo, "l2_" + sufijo + "@indhive.com", "ROLE_CREATOR", "hash"));
+        colaborador = userRepository.save(new User("l2c_" + sufijo, "l2c_" + sufijo + "@indhive.com", "ROLE_USER", "hash"));
+        proyecto = projectRepository.save(new Project("Cacheado", null, owner));
+        collaboratorRepository.save(new ProjectCollaborator(proyecto, colaborador));
+        entityManagerFactory.getCache().evictAll();
+        statistics.clear();
+    }
+
+    @Test
+    public void testLecturasRepetidasSinSentencias() {
+        cargarConColaboradores();
+        userRepository.findByEmail(owner.getEmail());
+        long sentencias = statistics.getPrepareStatementCount();
+
+        Project cacheado = cargarConColaboradores();
+        assertEquals(1, cacheado.getCollaborators().size());
+        assertTrue(userRepository.findByEmail(owner.getEmail()).isPresent());
+        assertTrue(userRepository.findById(colaborador.getId()).isPresent());
+
+        assertEquals(sentencias, statistics.getPrepareStatementCount());
+        assertTrue(statistics.getQueryCacheHitCount() > 0);
+        assertTrue(statistics.getCacheRegionStatistics(COLLABORATORS_REGION).getHitCount() > 0);
+    }
+
+    @Test
+    public void testDeleteEnBloqueInvalidaLosColaboradores() {
+        cargarConColaboradores();
+
+        transactionTemplate.executeWithoutResult(tx -> collaboratorRepository.deleteByProjectId(proyecto.getId()));
+
+        assertTrue(cargarConColaboradores().getCollaborators().isEmpty());
+    }
+
+    @Test
+    public void testInsertNativoSoloInvalidaSuTabla() {
+        userRepository.findById(colaborador.getId());
+        long aciertos = statistics.getCacheRegionStatistics(USER_REGION).getHitCount();
+
+        transactionTemplate.executeWithoutResult(tx -> {
+            collaboratorRepository.deleteByProjectId(proyecto.getId());
+            collaboratorRepository.insertMissing(proyecto.getId(), List.of(owner.getId()));
+        });
+
+        userRepository.findById(colaborador.getId());
+        assertTrue(statistics.getCacheRegionStatistics(USER_REGION).getHitCount() > aciertos,
+                "el INSERT nativo vació también la región de usuarios");
+        assertEquals(owner.getId(), cargarConColaboradores().getCollaborators().iterator().next().getUser().getId());
+    }
+
+    @Test
+    public void testMetricasPorRegion() {
+        userRepository.findById(owner.getId());
+        userRepository.findById(owner.getId());
+
+        assertEquals(1.0, meterRegistry.get("hibernate.cache.region.requests")
+                .tags("region", USER_REGION, "result", "hit").functionCounter().count());
+        assertEquals(0.5, meterRegistry.get("hibernate.cache.region.hit.ratio")
+                .tag("region", USER_REGION).gauge().value());
+        assertNotNull(meterRegistry.find("hibernate.cache.region.requests").tag("region", COLLABORATORS_REGION).functionCounter());
+    }
+
+    // Proyecto con sus colaboradores y el usuario de cada uno, como al devolverlo por la API
+    private Project cargarConColaboradores() {
+        return transactionTemplate.execute(tx -> {
+            Project cargado = projectRepository.findById(proyecto.getId()).orElseThrow();
+            cargado.getCollaborators().forEach(pc -> pc.getUser().getUsername());
+            return cargado;
+        });
+    }
+}
@@ -0,0 +1,107 @@
+package com.indhive.security;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BoundedPasswordEncoderTest {
+
+    private BoundedPasswordEncoder encoder;
+
+    @AfterEach
+    public void tearDown() {
+        if (encoder != null) {
+            encoder.shutdown();
+        }
+    }
+
+    @Test
+    public void testDelegaEnBCrypt() {
+        encoder = new BoundedPasswordEncoder(new BCryptPasswordEncoder(4), 1, 4, Duration.ofSeconds(5));
+
+        String hash = encoder.encode("Password_123");
+        assertTrue(encoder.matches("Password_123", hash));
+        assertFalse(encoder.matches("otra", hash));
+    }
+
+    @Test
+    public void testColaLlenaFallaEnseguidaCon503() throws Exception {
+        CountDownLatch liberar = new CountDownLatch(1);
+        CountDownLatch ocupado = new CountDownLatch(1);
+        encoder = new BoundedPasswordEncoder(new LentoEncoder(ocupado, liberar), 1, 1, Duration.ofSeconds(5));
+
+        CompletableFuture<String> enCurso = CompletableFuture.supplyAsync(() -> encoder.encode("a"));
+        assertTrue(ocupado.await(5, TimeUnit.SECONDS));
+        CompletableFuture<String> enCola = CompletableFuture.supplyAsync(() -> encoder.encode("b"));
+        while (encoder.getQueueSize() == 0) {
+            Thread.onSpinWait();
+        }
+
+        long inicio = System.nanoTime();
+        PasswordHashingUnavailableException e = assertThrows(PasswordHashingUnavailableException.class,
+                () -> encoder.encode("c"));
+        assertTrue(System.nanoTime() - inicio < TimeUnit.SECONDS.toNanos(1));
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, e.getStatusCode());
+        assertNotNull(e.getHeaders().getFirst(HttpHeaders.RETRY_AFTER));
+        assertEquals(1, encoder.getRejectedCount());
+
+        liberar.countDown();
+        assertEquals("hash-a", enCurso.get(5, TimeUnit.SECONDS));
+        assertEquals("hash-b", enCola.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testTiempoAgotadoDevuelve503() {
+        encoder = new BoundedPasswordEncoder(new LentoEncoder(new CountDownLatch(1), new CountDownLatch(1)),
+                1, 1, Duration.ofMillis(100));
+
+        assertThrows(PasswordHashingUnavailableException.class, () -> encoder.matches("a", "hash-a"));
+    }
+
+    @Test
+    public void testSubirElCosteMarcaElHashParaRegenerar() {
+        String hashAntiguo = new BCryptPasswordEncoder(4).encode("Password_123");
+        encoder = new BoundedPasswordEncoder(new BCryptPasswordEncoder(5), 1, 4, Duration.ofSeconds(5));
+
+        assertTrue(encoder.upgradeEncoding(hashAntiguo));
+        assertFalse(encoder.upgradeEncoding(encoder.encode("Password_123")));
+    }
+
+    // Bloquea cada operación hasta que el test la libera
+    private static class LentoEncoder implements PasswordEncoder {
+
+        private final CountDownLatch ocupado;
+        private final CountDownLatch liberar;
+
+        LentoEncoder(CountDownLatch ocupado, CountDownLatch liberar) {
+            this.ocupado = ocupado;
+            this.liberar = liberar;
+        }
+
+        @Override
+        public String encode(CharSequence rawPassword) {
+            ocupado.countDown();
+            try {
+                liberar.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return "hash-" + rawPassword;
+        }
+
+        @Override
+        public boolean matches(CharSequence rawPassword, String encodedPassword) {
+            return encode(rawPassword).equals(encodedPassword);
+        }
+    }
+}
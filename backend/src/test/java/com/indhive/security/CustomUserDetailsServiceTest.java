@@ -0,0 +1,169 @@
+package com.indhive.security;
+
+import com.indhive.model.User;
+import com.indhive.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.core.CredentialsContainer;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class CustomUserDetailsServiceTest {
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private ClusterEventBus eventBus;
+
+    @InjectMocks
+    private CustomUserDetailsService userDetailsService;
+
+    @BeforeEach
+    public void setup() {
+        ReflectionTestUtils.setField(userDetailsService, "cacheEnabled", true);
+        ReflectionTestUtils.setField(userDetailsService, "cacheTtl", Duration.ofMinutes(5));
+        ReflectionTestUtils.setField(userDetailsService, "cacheMaxSize", 100L);
+        userDetailsService.init();
+    }
+
+    @Test
+    public void testSegundaCargaSaleDeCache() {
+        when(userRepository.findByEmail("ana@indhive.com"))
+                .thenReturn(Optional.of(new User("ana", "ana@indhive.com", "ROLE_USER", "hash")));
+
+        userDetailsService.loadUserByUsername("ana@indhive.com");
+        UserDetails details = userDetailsService.loadUserByUsername("ANA@indhive.com");
+
+        assertEquals("hash", details.getPassword());
+        verify(userRepository, times(1)).findByEmail("ana@indhive.com");
+        assertEquals(1, userDetailsService.getCacheStats().hitCount());
+        assertEquals(1, userDetailsService.getCacheStats().missCount());
+    }
+
+    @Test
+    public void testBorrarCredencialesNoAfectaALaCache() {
+        when(userRepository.findByEmail("ana@indhive.com"))
+                .thenReturn(Optional.of(new User("ana", "ana@indhive.com", "ROLE_USER", "hash")));
+
+        ((CredentialsContainer) userDetailsService.loadUserByUsername("ana@indhive.com")).eraseCredentials();
+
+        assertEquals("hash", userDetailsService.loadUserByUsername("ana@indhive.com").getPassword());
+    }
+
+    @Test
+    public void testEvictFuerzaRecarga() {
+        when(userRepository.findByEmail("ana@indhive.com"))
+                .thenReturn(Optional.of(new User("ana", "ana@indhive.com", "ROLE_USER", "hash")))
+                .thenReturn(Optional.of(new User("ana", "ana@indhive.com", "ROLE_USER,ROLE_CREATOR", "hash")));
+
+        userDetailsService.loadUserByUsername("ana@indhive.com");
+        userDetailsService.evict("ana@indhive.com");
+        UserDetails details = userDetailsService.loadUserByUsername("ana@indhive.com");
+
+        assertEquals(2, details.getAuthorities().size());
+        verify(userRepository, times(2)).findByEmail("ana@indhive.com");
+    }
+
+    @Test
+    public void testEvictAvisaALasDemasReplicas() {
+        userDetailsService.evict("Ana@indhive.com");
+
+        verify(eventBus).publish(CustomUserDetailsService.CHANNEL, "ana@indhive.com");
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testEvictRemotoFuerzaRecarga() {
+        ArgumentCaptor<Consumer<String>> suscriptor = ArgumentCaptor.forClass(Consumer.class);
+        verify(eventBus).subscribe(eq(CustomUserDetailsService.CHANNEL), suscriptor.capture());
+        when(userRepository.findByEmail("ana@indhive.com"))
+                .thenReturn(Optional.of(new User("ana", "ana@indhive.com", "ROLE_USER", "hash")))
+                .thenReturn(Optional.of(new User("ana", "ana@indhive.com", "ROLE_USER", "hash-nuevo")));
+        userDetailsService.loadUserByUsername("ana@indhive.com");
+
+        suscriptor.getValue().accept("ana@indhive.com");
+
+        assertEquals("hash-nuevo", userDetailsService.loadUserByUsername("ana@indhive.com").getPassword());
+    }
+
+    @Test
+    public void testEvictEnTransaccionEsperaAConfirmar() {
+        when(userRepository.findByEmail("ana@indhive.com"))
+                .thenReturn(Optional.of(new User("ana", "ana@indhive.com", "ROLE_USER", "hash")));
+        userDetailsService.loadUserByUsername("ana@indhive.com");
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            userDetailsService.evict("ana@indhive.com");
+            // Aún sin confirmar: la entrada sigue y nadie recibe el aviso
+            assertEquals(1, userDetailsService.getCacheSize());
+            verify(eventBus, never()).publish(anyString(), anyString());
+
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        assertEquals(0, userDetailsService.getCacheSize());
+        verify(eventBus).publish(CustomUserDetailsService.CHANNEL, "ana@indhive.com");
+    }
+
+    @Test
+    public void testEvictDeshechoNoSeAplica() {
+        when(userRepository.findByEmail("ana@indhive.com"))
+                .thenReturn(Optional.of(new User("ana", "ana@indhive.com", "ROLE_USER", "hash")));
+        userDetailsService.loadUserByUsername("ana@indhive.com");
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            userDetailsService.evict("ana@indhive.com");
+        } finally {
+            // Rollback: no se llega a afterCommit
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        assertEquals(1, userDetailsService.getCacheSize());
+        verify(eventBus, never()).publish(anyString(), anyString());
+    }
+
+    @Test
+    public void testUsuarioInexistenteNoSeCachea() {
+        when(userRepository.findByEmail("nadie@indhive.com")).thenReturn(Optional.empty());
+
+        assertThrows(UsernameNotFoundException.class, () -> userDetailsService.loadUserByUsername("nadie@indhive.com"));
+        assertEquals(0, userDetailsService.getCacheSize());
+    }
+
+    @Test
+    public void testRehashGuardaElNuevoHashYRefrescaLaCache() {
+        User ana = new User("ana", "ana@indhive.com", "ROLE_USER", "hash-coste-bajo");
+        when(userRepository.findByEmail("ana@indhive.com")).thenReturn(Optional.of(ana));
+        UserDetails cargado = userDetailsService.loadUserByUsername("ana@indhive.com");
+
+        UserDetails actualizado = userDetailsService.updatePassword(cargado, "hash-coste-alto");
+
+        assertEquals("hash-coste-alto", actualizado.getPassword());
+        assertEquals("hash-coste-alto", ana.getPassword());
+        verify(userRepository).save(ana);
+        assertEquals(0, userDetailsService.getCacheSize());
+    }
+}
@@ -0,0 +1,152 @@
+package com.indhive.security;
+
+import com.indhive.dto.UserRequestDTO;
+import com.indhive.model.User;
+import com.indhive.repository.RetiredSubjectRepository;
+import com.indhive.repository.UserRepository;
+import com.indhive.service.UserService;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Autenticación desde los claims del JWT: un token al día no carga al usuario, uno desactualizado
+ * se resuelve contra la base de datos y el de un usuario eliminado deja de autenticar,
+ * también en una instancia recién arrancada.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+public class JwtAuthFilterTest {
+
+    private static final String SOLO_ADMIN = "/api/admin/cache/user-details";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JwtUtils jwtUtils;
+
+    @Autowired
+    private JwtAuthFilter jwtAuthFilter;
+
+    @Autowired
+    private TokenVersionService tokenVersionService;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private RetiredSubjectRepository retiredSubjectRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private User admin;
+    private String token;
+
+    @BeforeEach
+    public void setup() {
+        String sufijo = String.valueOf(System.nanoTime());
+        admin = userRepository.save(new User("admin_" + sufijo, "admin_" + sufijo + "@indhive.com", "ROLE_ADMIN", "hash"));
+        token = jwtUtils.generateJwtToken(admin.getEmail(), admin.getRoles(), admin.getTokenVersion());
+    }
+
+    @Test
+    public void testTokenAlDiaUsaLosClaims() throws Exception {
+        long cargas = cargasDeUsuario();
+
+        peticion(token).andExpect(status().isOk());
+
+        assertEquals(cargas, cargasDeUsuario());
+    }
+
+    @Test
+    public void testVersionIncrementadaCargaElUsuario() throws Exception {
+        UserRequestDTO dto = new UserRequestDTO();
+        dto.setUsername(admin.getUsername());
+        dto.setEmail(admin.getEmail());
+        dto.setRoles("ROLE_USER");
+        userService.actualizarUsuario(admin.getId(), dto, true);
+        long cargas = cargasDeUsuario();
+
+        // El token aún dice ROLE_ADMIN, pero manda el rol guardado
+        peticion(token).andExpect(status().isForbidden());
+
+        assertEquals(cargas + 1, cargasDeUsuario());
+    }
+
+    @Test
+    public void testUsuarioEliminadoNoAutentica() throws Exception {
+        userService.eliminarUsuario(admin.getId());
+
+        peticion(token).andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    public void testUsuarioEliminadoNoAutenticaTrasReiniciar() throws Exception {
+        userService.eliminarUsuario(admin.getId());
+
+        // Instancia nueva: solo sabe lo que hay en la base de datos
+        TokenVersionService reiniciado = new TokenVersionService(userRepository, retiredSubjectRepository,
+                new LocalClusterEventBus());
+        reiniciado.init();
+        ReflectionTestUtils.setField(jwtAuthFilter, "tokenVersionService", reiniciado);
+        try {
+            peticion(token).andExpect(status().isUnauthorized());
+        } finally {
+            ReflectionTestUtils.setField(jwtAuthFilter, "tokenVersionService", tokenVersionService);
+        }
+    }
+
+    @Test
+    public void testEmailCambiadoNoAutenticaConElAnterior() throws Exception {
+        UserRequestDTO dto = new UserRequestDTO();
+        dto.setUsername(admin.getUsername());
+        dto.setEmail("nuevo_" + admin.getEmail());
+        userService.actualizarUsuario(admin.getId(), dto, false);
+
+        peticion(token).andExpect(status().isUnauthorized());
+        assertTrue(retiredSubjectRepository.existsById(admin.getEmail()));
+    }
+
+    @Test
+    public void testRetiradaDeshechaNoSeAplica() {
+        transactionTemplate.executeWithoutResult(tx -> {
+            tokenVersionService.retire(admin.getEmail());
+            tx.setRollbackOnly();
+        });
+
+        assertFalse(tokenVersionService.isStale(admin.getEmail(), 0));
+        assertFalse(retiredSubjectRepository.existsById(admin.getEmail()));
+    }
+
+    private ResultActions peticion(String jwt) throws Exception {
+        return mockMvc.perform(get(SOLO_ADMIN).header(HttpHeaders.AUTHORIZATION, "Bearer " + jwt));
+    }
+
+    private long cargasDeUsuario() {
+        return meterRegistry.get("security.jwt.filter").tag("stage", "user_load").timer().count();
+    }
+}
@@ -0,0 +1,109 @@
+package com.indhive.security;
+
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.security.Keys;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * parse(): principal para un token válido y, para cada motivo de rechazo, vacío y su contador.
+ */
+public class JwtUtilsTest {
+
+    private static final String SECRET = "clave_de_pruebas_para_hs512_que_necesita_al_menos_sesenta_y_cuatro_bytes";
+    private static final String OTRO_SECRET = "otra_clave_distinta_para_hs512_que_tambien_necesita_sesenta_y_cuatro_bytes";
+
+    private JwtUtils jwtUtils;
+
+    @BeforeEach
+    public void setup() {
+        jwtUtils = new JwtUtils();
+        ReflectionTestUtils.setField(jwtUtils, "jwtSecret", SECRET);
+        jwtUtils.init();
+    }
+
+    @Test
+    public void testTokenValido() {
+        String token = jwtUtils.generateJwtToken("ana@indhive.com", "ADMIN,USER", 3);
+
+        JwtPrincipal principal = jwtUtils.parse(token).orElseThrow();
+
+        assertEquals("ana@indhive.com", principal.subject());
+        assertEquals("ROLE_ADMIN,ROLE_USER", principal.roles());
+        assertEquals(3, principal.tokenVersion());
+        assertTrue(principal.expiration().after(new Date()));
+        assertEquals(Map.of("expired", 0L, "unsupported", 0L, "malformed", 0L, "invalid", 0L),
+                jwtUtils.getRejectedTokenCounts());
+    }
+
+    @Test
+    public void testTokenSinVersionEmpiezaEnCero() {
+        String token = firmado(SECRET, new Date(System.currentTimeMillis() + 60_000));
+
+        assertEquals(0, jwtUtils.parse(token).orElseThrow().tokenVersion());
+    }
+
+    @Test
+    public void testTokenExpirado() {
+        String token = firmado(SECRET, new Date(System.currentTimeMillis() - 60_000));
+
+        assertRechazado(token, "expired");
+    }
+
+    @Test
+    public void testFirmaInvalida() {
+        String token = firmado(OTRO_SECRET, new Date(System.currentTimeMillis() + 60_000));
+
+        assertRechazado(token, "invalid");
+    }
+
+    @Test
+    public void testTokenMalFormado() {
+        assertRechazado("esto.no.es-un-jwt", "malformed");
+    }
+
+    @Test
+    public void testTokenSinFirma() {
+        String token = Jwts.builder()
+                .setSubject("ana@indhive.com")
+                .setExpiration(new Date(System.currentTimeMillis() + 60_000))
+                .compact();
+
+        assertRechazado(token, "unsupported");
+    }
+
+    @Test
+    public void testTokenVacio() {
+        assertRechazado("", "invalid");
+    }
+
+    private void assertRechazado(String token, String motivo) {
+        Optional<JwtPrincipal> principal = jwtUtils.parse(token);
+
+        assertTrue(principal.isEmpty());
+        assertFalse(jwtUtils.validateJwtToken(token));
+        // Cada intento cuenta una vez y solo en su motivo
+        jwtUtils.getRejectedTokenCounts().forEach((clave, total) ->
+                assertEquals(clave.equals(motivo) ? 2L : 0L, total, clave));
+    }
+
+    private static String firmado(String secret, Date expiracion) {
+        return Jwts.builder()
+                .setSubject("ana@indhive.com")
+                .claim("roles", "ROLE_USER")
+                .setIssuedAt(new Date(expiracion.getTime() - 120_000))
+                .setExpiration(expiracion)
+                .signWith(Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8)), SignatureAlgorithm.HS512)
+                .compact();
+    }
+}
@@ -0,0 +1,197 @@
+package com.indhive.security;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LoginAttemptServiceTest {
+
+    private static final String IP = "10.0.0.1";
+
+    private final AtomicLong nanos = new AtomicLong();
+    private LoginAttemptService service;
+
+    @BeforeEach
+    public void setup() {
+        service = new LoginAttemptService(5, 20, Duration.ofMinutes(10), 1000, nanos::get);
+    }
+
+    private void avanzar(Duration tiempo) {
+        nanos.addAndGet(tiempo.toNanos());
+    }
+
+    @Test
+    public void testBloqueoPorCuenta() {
+        for (int i = 0; i < 4; i++) {
+            service.loginFailed("Ana@indhive.com", IP);
+        }
+        assertFalse(service.isBlocked("ana@indhive.com", IP));
+
+        service.loginFailed("ana@indhive.com", IP);
+        assertTrue(service.isBlocked("ana@indhive.com", "10.0.0.2"));
+        assertFalse(service.isBlocked("otro@indhive.com", IP));
+    }
+
+    @Test
+    public void testVentanaDeslizante() {
+        service.loginFailed("ana@indhive.com", IP);
+        service.loginFailed("ana@indhive.com", IP);
+        avanzar(Duration.ofMinutes(6));
+        service.loginFailed("ana@indhive.com", IP);
+        service.loginFailed("ana@indhive.com", IP);
+        service.loginFailed("ana@indhive.com", IP);
+        assertTrue(service.isBlocked("ana@indhive.com", IP));
+
+        // Los dos primeros fallos salen de la ventana; los tres últimos siguen dentro
+        avanzar(Duration.ofMinutes(5));
+        assertEquals(3, service.getAttempts("ana@indhive.com"));
+        assertFalse(service.isBlocked("ana@indhive.com", IP));
+
+        avanzar(Duration.ofMinutes(10));
+        assertEquals(0, service.getAttempts("ana@indhive.com"));
+    }
+
+    @Test
+    public void testBloqueoPorIpEntreCuentas() {
+        for (int i = 0; i < 20; i++) {
+            service.loginFailed("usuario" + i + "@indhive.com", IP);
+        }
+        assertTrue(service.isBlocked("nuevo@indhive.com", IP));
+        assertFalse(service.isBlocked("nuevo@indhive.com", "10.0.0.2"));
+    }
+
+    @Test
+    public void testAciertoLimpiaLaCuentaPeroNoLaIp() {
+        for (int i = 0; i < 19; i++) {
+            service.loginFailed("usuario" + i + "@indhive.com", IP);
+        }
+        service.loginFailed("ana@indhive.com", IP);
+        service.loginSucceeded("ana@indhive.com");
+
+        assertEquals(0, service.getAttempts("ana@indhive.com"));
+        assertTrue(service.isBlocked("ana@indhive.com", IP));
+    }
+
+    @Test
+    public void testCuentaLosRechazosPorLimite() {
+        for (int i = 0; i < 5; i++) {
+            service.loginFailed("ana@indhive.com", IP);
+        }
+        service.isBlocked("ana@indhive.com", IP);
+        service.isBlocked("ana@indhive.com", "10.0.0.2");
+        service.isBlocked("otro@indhive.com", IP);
+
+        assertEquals(2L, service.getBlockedCounts().get("account"));
+        assertEquals(0L, service.getBlockedCounts().get("ip"));
+    }
+
+    @Test
+    public void testIncrementosConcurrentesNoSePierden() throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> tareas = new ArrayList<>();
+            for (int t = 0; t < 8; t++) {
+                tareas.add(pool.submit(() -> {
+                    for (int i = 0; i < 1000; i++) {
+                        service.loginFailed("ana@indhive.com", null);
+                    }
+                }));
+            }
+            for (Future<?> tarea : tareas) {
+                tarea.get();
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+        assertEquals(8000, service.getAttempts("ana@indhive.com"));
+    }
+
+    @Test
+    public void testMemoriaAcotadaBajoAtaque() {
+        for (int i = 0; i < 50_000; i++) {
+            service.loginFailed("victima" + i + "@indhive.com", "10." + (i >> 16) + "." + ((i >> 8) & 255) + "." + (i & 255));
+        }
+        assertTrue(service.getTrackedKeys() <= 2000, "claves: " + service.getTrackedKeys());
+    }
+
+    @Test
+    public void testBloqueoCompartidoEntreReplicas() {
+        LoginAttemptStore compartido = new InMemoryStore();
+        LoginAttemptService nodoA = new LoginAttemptService(5, 20, Duration.ofMinutes(10), 1000, nanos::get,
+                compartido, Clock.systemUTC());
+        LoginAttemptService nodoB = new LoginAttemptService(5, 20, Duration.ofMinutes(10), 1000, nanos::get,
+                compartido, Clock.systemUTC());
+
+        // El atacante reparte los intentos entre réplicas para no llegar al límite en ninguna
+        for (int i = 0; i < 3; i++) {
+            nodoA.loginFailed("ana@indhive.com", IP);
+        }
+        nodoB.loginFailed("ana@indhive.com", "10.0.0.2");
+        nodoB.loginFailed("ana@indhive.com", "10.0.0.2");
+        assertFalse(nodoA.isBlocked("ana@indhive.com", IP));
+        assertFalse(nodoB.isBlocked("ana@indhive.com", "10.0.0.2"));
+
+        nodoA.sincronizar();
+        nodoB.sincronizar();
+        nodoA.sincronizar();
+        assertTrue(nodoA.isBlocked("ana@indhive.com", "10.0.0.3"));
+        assertTrue(nodoB.isBlocked("ana@indhive.com", "10.0.0.3"));
+
+        // Un login correcto en un nodo levanta el bloqueo en los demás tras sincronizar
+        nodoB.loginSucceeded("ana@indhive.com");
+        nodoB.sincronizar();
+        nodoA.sincronizar();
+        assertFalse(nodoA.isBlocked("ana@indhive.com", "10.0.0.3"));
+    }
+
+    // Almacén compartido en memoria con la misma semántica que login_attempts
+    private static class InMemoryStore implements LoginAttemptStore {
+
+        private final Map<String, Map<Long, Integer>> fallos = new ConcurrentHashMap<>();
+
+        @Override
+        public void addFailures(Map<String, Integer> failuresByKey, long bucket) {
+            failuresByKey.forEach((key, n) ->
+                    fallos.computeIfAbsent(key, k -> new ConcurrentHashMap<>()).merge(bucket, n, Integer::sum));
+        }
+
+        @Override
+        public Map<String, Integer> findKeysWithAtLeast(long afterBucket, int minFailures, int limit) {
+            Map<String, Integer> resultado = new HashMap<>();
+            fallos.forEach((key, porTramo) -> {
+                int total = porTramo.entrySet().stream()
+                        .filter(e -> e.getKey() > afterBucket)
+                        .mapToInt(Map.Entry::getValue)
+                        .sum();
+                if (total >= minFailures && resultado.size() < limit) {
+                    resultado.put(key, total);
+                }
+            });
+            return resultado;
+        }
+
+        @Override
+        public void reset(Collection<String> keys) {
+            keys.forEach(fallos::remove);
+        }
+
+        @Override
+        public void purgeUpTo(long bucket) {
+            fallos.values().forEach(porTramo -> porTramo.keySet().removeIf(b -> b <= bucket));
+        }
+    }
+}
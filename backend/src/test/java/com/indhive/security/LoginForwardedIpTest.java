@@ -0,0 +1,53 @@
+package com.indhive.security;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Detrás de nginx el límite de login por IP cuenta la IP del cliente (X-Forwarded-For), no la del proxy:
+ * los fallos de un cliente no bloquean el login de los demás.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = "security.login-attempts.max-per-ip=" + LoginForwardedIpTest.MAX_POR_IP)
+@ActiveProfiles("test")
+public class LoginForwardedIpTest {
+
+    static final int MAX_POR_IP = 3;
+
+    @LocalServerPort
+    private int port;
+
+    private final HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+
+    @Test
+    public void testLimitePorIpUsaLaDelCliente() throws Exception {
+        String sufijo = String.valueOf(System.nanoTime());
+        for (int i = 0; i < MAX_POR_IP; i++) {
+            assertEquals(401, login("203.0.113.10", "fwd" + i + "_" + sufijo + "@indhive.com"));
+        }
+        assertEquals(429, login("203.0.113.10", "fwd_otro_" + sufijo + "@indhive.com"));
+
+        // Mismo proxy (127.0.0.1), otro cliente: no está bloqueado
+        assertEquals(401, login("198.51.100.20", "fwd_otro_" + sufijo + "@indhive.com"));
+    }
+
+    private int login(String ipCliente, String email) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/auth/login"))
+                .header("Content-Type", "application/json")
+                .header("X-Forwarded-For", ipCliente)
+                .POST(HttpRequest.BodyPublishers.ofString(
+                        "{\"email\":\"" + email + "\",\"password\":\"Password_123\"}"))
+                .build();
+        return client.send(request, HttpResponse.BodyHandlers.ofString()).statusCode();
+    }
+}
@@ -0,0 +1,45 @@
+package com.indhive.security;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RolesTest {
+
+    // Implementación anterior de User.setRoles, como referencia
+    private static String normalizarAntes(String roles) {
+        return Arrays.stream(roles.split(","))
+                .map(role -> role.trim().startsWith("ROLE_") ? role.trim() : "ROLE_" + role.trim())
+                .collect(Collectors.joining(","));
+    }
+
+    @Test
+    public void testMismoResultadoQueAntes() {
+        for (String roles : List.of("ROLE_USER", "ROLE_USER,ROLE_ADMIN", "USER", "USER, CREATOR",
+                " ROLE_USER", "ROLE_USER ", "ROLE_USER,,ROLE_ADMIN", "ROLE_USER,", ",ROLE_USER", "ROLE_", "")) {
+            assertEquals(normalizarAntes(roles), Roles.normalize(roles), "roles: '" + roles + "'");
+        }
+        assertNull(Roles.normalize(null));
+    }
+
+    @Test
+    public void testYaNormalizadoNoSeCopia() {
+        String roles = "ROLE_USER,ROLE_CREATOR";
+        assertSame(roles, Roles.normalize(roles));
+    }
+
+    @Test
+    public void testAuthoritiesCompartidasEInmutables() {
+        List<SimpleGrantedAuthority> authorities = Roles.authorities("ROLE_USER,ROLE_CREATOR");
+
+        assertEquals(List.of(new SimpleGrantedAuthority("ROLE_USER"), new SimpleGrantedAuthority("ROLE_CREATOR")),
+                authorities);
+        assertSame(authorities, Roles.authorities("ROLE_USER,ROLE_CREATOR"));
+        assertThrows(UnsupportedOperationException.class, () -> authorities.add(new SimpleGrantedAuthority("ROLE_ADMIN")));
+    }
+}
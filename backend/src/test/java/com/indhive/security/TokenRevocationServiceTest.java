@@ -0,0 +1,112 @@
+package com.indhive.security;
+
+import com.indhive.model.RevokedToken;
+import com.indhive.repository.RevokedTokenRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import io.jsonwebtoken.MalformedJwtException;
+
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class TokenRevocationServiceTest {
+
+    @Mock
+    private RevokedTokenRepository revokedTokenRepository;
+
+    @Mock
+    private JwtUtils jwtUtils;
+
+    @Mock
+    private ClusterEventBus eventBus;
+
+    @InjectMocks
+    private TokenRevocationService tokenRevocationService;
+
+    private final Date manana = new Date(System.currentTimeMillis() + 86_400_000L);
+
+    @Test
+    public void testTokenNoRevocadoNoConsultaBaseDeDatos() {
+        when(revokedTokenRepository.findByExpiresAtAfter(any(Date.class))).thenReturn(List.of());
+        tokenRevocationService.init();
+
+        assertFalse(tokenRevocationService.isRevoked("token-valido"));
+        verify(revokedTokenRepository, never()).existsById(anyString());
+    }
+
+    @Test
+    public void testTokenCargadoAlArrancarSeConfirmaEnBaseDeDatos() {
+        String hash = TokenRevocationService.digest("token-revocado");
+        when(revokedTokenRepository.findByExpiresAtAfter(any(Date.class)))
+                .thenReturn(List.of(new RevokedToken(hash, new Date(), manana)));
+        when(revokedTokenRepository.existsById(hash)).thenReturn(true);
+        tokenRevocationService.init();
+
+        assertTrue(tokenRevocationService.isRevoked("token-revocado"));
+        assertFalse(tokenRevocationService.isRevoked("otro-token"));
+        verify(revokedTokenRepository, times(1)).existsById(hash);
+    }
+
+    @Test
+    public void testRevocarGuardaHashYExpiracion() {
+        when(jwtUtils.getExpirationFromJwtToken("token-logout")).thenReturn(manana);
+
+        tokenRevocationService.revoke("token-logout");
+
+        ArgumentCaptor<RevokedToken> captor = ArgumentCaptor.forClass(RevokedToken.class);
+        verify(revokedTokenRepository).save(captor.capture());
+        assertEquals(64, captor.getValue().getTokenHash().length());
+        assertEquals(manana, captor.getValue().getExpiresAt());
+
+        when(revokedTokenRepository.existsById(captor.getValue().getTokenHash())).thenReturn(true);
+        assertTrue(tokenRevocationService.isRevoked("token-logout"));
+    }
+
+    @Test
+    public void testTokenInvalidoNoSeGuarda() {
+        when(jwtUtils.getExpirationFromJwtToken("basura")).thenThrow(new MalformedJwtException("mal formado"));
+
+        tokenRevocationService.revoke("basura");
+
+        verify(revokedTokenRepository, never()).save(any(RevokedToken.class));
+    }
+
+    @Test
+    public void testPurgaEliminaExpiradosDeMemoria() {
+        Date ayer = new Date(System.currentTimeMillis() - 86_400_000L);
+        when(jwtUtils.getExpirationFromJwtToken("token-viejo")).thenReturn(ayer);
+        tokenRevocationService.revoke("token-viejo");
+
+        tokenRevocationService.purgeExpired();
+
+        verify(revokedTokenRepository).deleteExpired(any(Date.class));
+        assertFalse(tokenRevocationService.isRevoked("token-viejo"));
+        verify(revokedTokenRepository, times(1)).existsById(anyString());
+    }
+
+    @Test
+    public void testRevocacionSeDifundeYSeAplicaEnOtraReplica() {
+        when(jwtUtils.getExpirationFromJwtToken("token-compartido")).thenReturn(manana);
+        tokenRevocationService.revoke("token-compartido");
+
+        ArgumentCaptor<String> payload = ArgumentCaptor.forClass(String.class);
+        verify(eventBus).publish(eq(TokenRevocationService.CHANNEL), payload.capture());
+
+        // Otra réplica recibe el aviso y confirma contra la base de datos compartida
+        TokenRevocationService otraReplica = new TokenRevocationService(revokedTokenRepository, jwtUtils, eventBus);
+        assertFalse(otraReplica.isRevoked("token-compartido"));
+        otraReplica.onRemoteRevocation(payload.getValue());
+        when(revokedTokenRepository.existsById(TokenRevocationService.digest("token-compartido"))).thenReturn(true);
+        assertTrue(otraReplica.isRevoked("token-compartido"));
+    }
+}
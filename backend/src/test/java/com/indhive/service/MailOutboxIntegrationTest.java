@@ -0,0 +1,83 @@
+package com.indhive.service;
+
+import com.icegreen.greenmail.configuration.GreenMailConfiguration;
+import com.icegreen.greenmail.junit5.GreenMailExtension;
+import com.icegreen.greenmail.util.ServerSetupTest;
+import com.indhive.model.User;
+import com.indhive.repository.UserRepository;
+
+import jakarta.mail.internet.MimeMessage;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Recuperación de contraseña contra un servidor SMTP local (GreenMail): el endpoint solo encola
+ * y el worker entrega el correo en segundo plano, una vez por destinatario.
+ */
+// Un solo worker: H2 ignora SKIP LOCKED y dos workers podrían reclamar la misma fila
+@SpringBootTest(properties = {
+        "spring.mail.port=3025",
+        "mail.outbox.worker.enabled=true",
+        "mail.outbox.workers=1",
+        "mail.outbox.poll-interval-ms=100"
+})
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+public class MailOutboxIntegrationTest {
+
+    @RegisterExtension
+    static GreenMailExtension greenMail = new GreenMailExtension(ServerSetupTest.SMTP)
+            .withConfiguration(GreenMailConfiguration.aConfig().withUser("test", "test"));
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @BeforeEach
+    public void setup() {
+        if (userRepository.findByEmail("olvido@indhive.com").isEmpty()) {
+            userRepository.save(new User("olvido", "olvido@indhive.com", "ROLE_USER", "hash"));
+        }
+    }
+
+    @Test
+    public void testRecuperacionSeEnviaUnaVez() throws Exception {
+        for (int i = 0; i < 3; i++) {
+            mockMvc.perform(post("/api/auth/recover")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content("{\"email\":\"olvido@indhive.com\"}"))
+                    .andExpect(status().isOk());
+        }
+
+        assertTrue(greenMail.waitForIncomingEmail(5000, 1));
+        Thread.sleep(500);
+        MimeMessage[] recibidos = greenMail.getReceivedMessages();
+        assertEquals(1, recibidos.length);
+        assertEquals("olvido@indhive.com", recibidos[0].getAllRecipients()[0].toString());
+        assertTrue(((String) recibidos[0].getContent()).contains("reset-password?token="));
+    }
+
+    @Test
+    public void testEmailDesconocidoNoEnviaNada() throws Exception {
+        mockMvc.perform(post("/api/auth/recover")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"email\":\"nadie@indhive.com\"}"))
+                .andExpect(status().isOk());
+
+        assertFalse(greenMail.waitForIncomingEmail(1000, 1));
+    }
+}
@@ -0,0 +1,107 @@
+package com.indhive.service;
+
+import com.indhive.model.OutboundMail;
+import com.indhive.repository.OutboundMailRepository;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class MailOutboxServiceTest {
+
+    private static final Instant AHORA = Instant.parse("2024-05-01T10:00:00Z");
+
+    @Mock
+    private OutboundMailRepository repository;
+
+    private MailOutboxService outbox;
+
+    @BeforeEach
+    public void setup() {
+        outbox = new MailOutboxService(repository, Clock.fixed(AHORA, ZoneOffset.UTC));
+        ReflectionTestUtils.setField(outbox, "maxAttempts", 3);
+        ReflectionTestUtils.setField(outbox, "backoffBase", Duration.ofSeconds(30));
+        ReflectionTestUtils.setField(outbox, "backoffMax", Duration.ofMinutes(30));
+        ReflectionTestUtils.setField(outbox, "dedupWindow", Duration.ofMinutes(2));
+    }
+
+    @Test
+    public void testPendienteSeSustituyeEnVezDeDuplicarse() {
+        when(repository.updatePending("recover:ana", "Asunto", "enlace nuevo")).thenReturn(1);
+
+        outbox.encolar("ana@indhive.com", "Asunto", "enlace nuevo", "recover:ana");
+
+        verify(repository, never()).insertPending(any(), any(), any(), any(), any());
+    }
+
+    @Test
+    public void testSinPendienteSeEncola() {
+        when(repository.insertPending("ana@indhive.com", "Asunto", "enlace", "recover:ana", AHORA)).thenReturn(1);
+
+        outbox.encolar("ana@indhive.com", "Asunto", "enlace", "recover:ana");
+
+        verify(repository, times(1)).insertPending("ana@indhive.com", "Asunto", "enlace", "recover:ana", AHORA);
+        verify(repository, times(1)).updatePending("recover:ana", "Asunto", "enlace");
+    }
+
+    @Test
+    public void testEncoladoAlMismoTiempoSeSustituye() {
+        // El INSERT choca con el pendiente que otra petición acaba de confirmar
+        when(repository.updatePending("recover:ana", "Asunto", "enlace")).thenReturn(0, 1);
+        when(repository.insertPending("ana@indhive.com", "Asunto", "enlace", "recover:ana", AHORA)).thenReturn(0);
+
+        outbox.encolar("ana@indhive.com", "Asunto", "enlace", "recover:ana");
+
+        verify(repository, times(2)).updatePending("recover:ana", "Asunto", "enlace");
+    }
+
+    @Test
+    public void testEnviadoRecientementeSeDescarta() {
+        when(repository.existsByDedupKeyAndStatusAndSentAtAfter("recover:ana", OutboundMail.Status.SENT,
+                AHORA.minus(Duration.ofMinutes(2)))).thenReturn(true);
+
+        outbox.encolar("ana@indhive.com", "Asunto", "enlace", "recover:ana");
+
+        verify(repository, never()).insertPending(any(), any(), any(), any(), any());
+    }
+
+    @Test
+    public void testReintentoConEsperaExponencialYDescarteFinal() {
+        OutboundMail mail = new OutboundMail("ana@indhive.com", "Asunto", "texto", "recover:ana", AHORA);
+        ReflectionTestUtils.setField(mail, "id", 7L);
+        when(repository.findAllById(any())).thenAnswer(inv ->
+                ((Iterable<?>) inv.getArgument(0)).iterator().hasNext() ? List.of(mail) : List.of());
+
+        mail.setAttempts(2);
+        outbox.registrarResultados(List.of(), Map.of(7L, "Connection refused"));
+        assertEquals(OutboundMail.Status.PENDING, mail.getStatus());
+        assertEquals(AHORA.plus(Duration.ofMinutes(1)), mail.getNextAttemptAt());
+        assertEquals("Connection refused", mail.getLastError());
+
+        mail.setAttempts(3);
+        outbox.registrarResultados(List.of(), Map.of(7L, "Connection refused"));
+        assertEquals(OutboundMail.Status.FAILED, mail.getStatus());
+    }
+
+    @Test
+    public void testEsperaAcotada() {
+        assertEquals(Duration.ofSeconds(30), outbox.backoff(1));
+        assertEquals(Duration.ofMinutes(2), outbox.backoff(3));
+        assertEquals(Duration.ofMinutes(30), outbox.backoff(12));
+    }
+}
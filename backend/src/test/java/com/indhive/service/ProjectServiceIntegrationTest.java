@@ -0,0 +1,117 @@
+package com.indhive.service;
+
+import com.indhive.dto.ProjectRequestDTO;
+import com.indhive.model.Project;
+import com.indhive.model.ProjectCollaborator;
+import com.indhive.model.User;
+import com.indhive.repository.ProjectCollaboratorRepository;
+import com.indhive.repository.ProjectRepository;
+import com.indhive.repository.UserRepository;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.doThrow;
+
+/**
+ * Edición de proyectos fuera de una petición web (sin open-session-in-view): todo se guarda
+ * en una sola transacción o no se guarda nada.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+public class ProjectServiceIntegrationTest {
+
+    @Autowired
+    private ProjectService projectService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ProjectRepository projectRepository;
+
+    @SpyBean
+    private ProjectCollaboratorRepository collaboratorRepository;
+
+    private User owner;
+    private User colaborador;
+    private User anterior;
+    private Project proyecto;
+
+    @BeforeEach
+    public void setup() {
+        String sufijo = String.valueOf(System.nanoTime());
+        owner = userRepository.save(new User("ps_" + sufijo, "ps_" + sufijo + "@indhive.com", "ROLE_CREATOR", "hash"));
+        colaborador = userRepository.save(new User("psc_" + sufijo, "psc_" + sufijo + "@indhive.com", "ROLE_USER", "hash"));
+        anterior = userRepository.save(new User("psa_" + sufijo, "psa_" + sufijo + "@indhive.com", "ROLE_USER", "hash"));
+        proyecto = projectRepository.save(new Project("Original", "Descripción", owner));
+        collaboratorRepository.save(new ProjectCollaborator(proyecto, anterior));
+    }
+
+    @Test
+    public void testActualizarGuardaTodoYCambiaLaVersion() {
+        long version = projectRepository.findById(proyecto.getId()).orElseThrow().getVersion();
+
+        ProjectService.ProyectoActualizado actualizado = projectService
+                .actualizarProyecto(proyecto.getId(), peticion("Editado", colaborador.getId()), false, p -> {})
+                .orElseThrow();
+
+        Project guardado = projectRepository.findById(proyecto.getId()).orElseThrow();
+        assertEquals("Editado", guardado.getTitle());
+        assertTrue(guardado.getVersion() > version);
+        // La versión devuelta es la confirmada: el ETag del PUT vale para el siguiente GET
+        assertEquals(guardado.getVersion(), actualizado.proyecto().getVersion());
+        assertEquals(List.of(colaborador.getId()),
+                actualizado.colaboradores().stream().map(c -> c.getId()).toList());
+    }
+
+    @Test
+    public void testFalloEnLosColaboradoresDeshaceLaEdicion() {
+        long version = projectRepository.findById(proyecto.getId()).orElseThrow().getVersion();
+        doThrow(new IllegalStateException("fallo simulado"))
+                .when(collaboratorRepository).insertMissing(anyLong(), any());
+
+        assertThrows(RuntimeException.class, () -> projectService
+                .actualizarProyecto(proyecto.getId(), peticion("A medias", colaborador.getId()), false, p -> {}));
+
+        Project guardado = projectRepository.findById(proyecto.getId()).orElseThrow();
+        assertEquals("Original", guardado.getTitle());
+        assertEquals(version, guardado.getVersion());
+        assertEquals(List.of(anterior.getId()), projectService.listarColaboradores(proyecto.getId()).stream()
+                .map(c -> c.getId()).toList());
+    }
+
+    @Test
+    public void testComprobacionFallidaNoEscribe() {
+        assertThrows(IllegalStateException.class, () -> projectService
+                .actualizarProyecto(proyecto.getId(), peticion("Sin permiso", colaborador.getId()), true, p -> {
+                    assertEquals(1, p.getCollaborators().size());
+                    throw new IllegalStateException("sin permiso");
+                }));
+
+        assertEquals("Original", projectRepository.findById(proyecto.getId()).orElseThrow().getTitle());
+    }
+
+    @Test
+    public void testProyectoInexistente() {
+        assertTrue(projectService.actualizarProyecto(-1L, peticion("Nada", colaborador.getId()), false, p -> fail())
+                .isEmpty());
+    }
+
+    private static ProjectRequestDTO peticion(String titulo, Long colaboradorId) {
+        ProjectRequestDTO dto = new ProjectRequestDTO();
+        dto.setTitle(titulo);
+        dto.setCollaboratorIds(Set.of(colaboradorId));
+        return dto;
+    }
+}
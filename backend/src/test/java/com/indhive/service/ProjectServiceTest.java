@@ -1,14 +1,16 @@
 package com.indhive.service;
 
 import com.indhive.model.Project;
+import com.indhive.repository.ProjectCollaboratorRepository;
 import com.indhive.repository.ProjectRepository;
+import jakarta.persistence.EntityManager;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
-import java.util.List;
 import java.util.Optional;
 
 import static org.mockito.Mockito.*;
@@ -20,19 +22,14 @@ public class ProjectServiceTest {
     @Mock
     private ProjectRepository proyectoRepository;
 
-    @InjectMocks
-    private ProjectService proyectoService;
-
-    @Test
-    public void testListarProyectos() {
-        List<Project> listaMock = List.of(new Project(), new Project());
-        when(proyectoRepository.findAll()).thenReturn(listaMock);
+    @Mock
+    private ProjectCollaboratorRepository collaboratorRepository;
 
-        List<Project> resultado = proyectoService.listarProyectos();
+    @Mock
+    private EntityManager entityManager;
 
-        assertEquals(2, resultado.size());
-        verify(proyectoRepository, times(1)).findAll();
-    }
+    @InjectMocks
+    private ProjectService proyectoService;
 
     @Test
     public void testObtenerProyectoPorId() {
@@ -67,6 +64,9 @@ public class ProjectServiceTest {
 
         proyectoService.eliminarProyecto(id);
 
-        verify(proyectoRepository, times(1)).deleteById(id);
+        // Los colaboradores se borran antes que el proyecto
+        InOrder orden = inOrder(collaboratorRepository, proyectoRepository);
+        orden.verify(collaboratorRepository).deleteByProjectId(id);
+        orden.verify(proyectoRepository).deleteById(id);
     }
 }
@@ -0,0 +1,110 @@
+package com.indhive.service;
+
+import com.indhive.dto.UserRequestDTO;
+import com.indhive.model.User;
+import com.indhive.repository.UserRepository;
+import com.indhive.security.CustomUserDetailsService;
+import com.indhive.security.TokenVersionService;
+
+import jakarta.persistence.EntityManager;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class UserServiceTest {
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private PasswordEncoder passwordEncoder;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @Mock
+    private EntityManager entityManager;
+
+    @Mock
+    private TokenVersionService tokenVersionService;
+
+    @Mock
+    private CustomUserDetailsService userDetailsService;
+
+    @InjectMocks
+    private UserService userService;
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testImportarCifraAntesDeAbrirLaTransaccion() {
+        when(userRepository.findExistingEmails(anyCollection())).thenReturn(List.of());
+        when(userRepository.findExistingUsernames(anyCollection())).thenReturn(List.of());
+        when(passwordEncoder.encode(anyString())).thenReturn("hash");
+        when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+                ((TransactionCallback<List<Long>>) invocation.getArgument(0)).doInTransaction(null));
+        // El lote se vacía tras guardarlo: los roles se leen en el momento del saveAll
+        List<String> roles = new ArrayList<>();
+        when(userRepository.saveAll(anyList())).thenAnswer(invocation -> {
+            ((List<User>) invocation.getArgument(0)).forEach(user -> roles.add(user.getRoles()));
+            return invocation.getArgument(0);
+        });
+
+        userService.importarUsuarios(List.of(usuario("uno", "secreto1", "ADMIN"), usuario("dos", "secreto2", null)));
+
+        InOrder orden = inOrder(passwordEncoder, transactionTemplate, userRepository);
+        orden.verify(passwordEncoder, times(2)).encode(anyString());
+        orden.verify(transactionTemplate).execute(any());
+        orden.verify(userRepository).saveAll(anyList());
+
+        // Roles con el mismo formato que el alta individual
+        assertEquals(List.of("ROLE_ADMIN", "ROLE_USER"), roles);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testActualizarCifraAntesDeAbrirLaTransaccion() {
+        User existente = new User("uno", "uno@indhive.com", "ROLE_USER", "hash-anterior");
+        existente.setId(1L);
+        when(passwordEncoder.encode("secreto2")).thenReturn("hash-nuevo");
+        when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+                ((TransactionCallback<User>) invocation.getArgument(0)).doInTransaction(null));
+        when(userRepository.findById(1L)).thenReturn(Optional.of(existente));
+        when(userRepository.save(any(User.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        User guardado = userService.actualizarUsuario(1L, usuario("uno", "secreto2", null), false);
+
+        InOrder orden = inOrder(passwordEncoder, transactionTemplate, userRepository);
+        orden.verify(passwordEncoder).encode("secreto2");
+        orden.verify(transactionTemplate).execute(any());
+        orden.verify(userRepository).findById(1L);
+        assertEquals("hash-nuevo", guardado.getPassword());
+    }
+
+    private static UserRequestDTO usuario(String nombre, String password, String roles) {
+        UserRequestDTO dto = new UserRequestDTO();
+        dto.setUsername(nombre);
+        dto.setEmail(nombre + "@indhive.com");
+        dto.setPassword(password);
+        dto.setRoles(roles);
+        return dto;
+    }
+}
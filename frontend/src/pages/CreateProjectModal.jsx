@@ -40,12 +40,11 @@ const CreateProjectModal = ({ onClose, onProjectCreated }) => {
     if (text.trim().length < 2) return setUserSuggestions([]);
 
     try {
-      const res = await fetch(`${apiUrl}/api/users`, {
+      const res = await fetch(`${apiUrl}/api/users?search=${encodeURIComponent(text.trim())}`, {
         headers: { Authorization: `Bearer ${token}` },
       });
       const users = await res.json();
       const filtered = users.filter(u =>
-        u.username.toLowerCase().includes(text.toLowerCase()) &&
         !selectedUsers.some(sel => sel.id === u.id)
       );
       setUserSuggestions(filtered);
@@ -13,6 +13,7 @@ import ProjectListModal from './ProjectListModal';
 import Footer from './Footer';
 import ProjectDetailModal from './ProjectDetailModal';
 import Toast from './Toast';
+import { fetchAllPages } from '../services/pagination';
 
 const Dashboard = () => {
   const [projects, setProjects] = useState([]);
@@ -40,10 +41,7 @@ const Dashboard = () => {
   // Fetch data
   const fetchProjects = useCallback(async () => {
     try {
-      const res = await fetch(`${apiUrl}/api/projects`, {
-        headers: { Authorization: `Bearer ${token}` },
-      });
-      const data = await res.json();
+      const data = await fetchAllPages(`${apiUrl}/api/projects`, token);
       setProjects(data);
     } catch (err) {
       showToast('No se pudieron cargar los proyectos', 'error');
@@ -210,10 +208,7 @@ const Dashboard = () => {
                 <button
                   onClick={() => {
                     toggleModal('userList');
-                    fetch(`${apiUrl}/api/users`, {
-                      headers: { Authorization: `Bearer ${token}` },
-                    })
-                      .then(res => res.json())
+                    fetchAllPages(`${apiUrl}/api/users`, token)
                       .then(setUsers)
                       .catch(() => showToast('Error al cargar usuarios', 'error'));
                   }}
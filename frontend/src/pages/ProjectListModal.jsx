@@ -1,5 +1,6 @@
 import React, { useEffect, useState } from 'react';
 import './Modal.css';
+import { fetchAllPages } from '../services/pagination';
 
 const ProjectListModal = ({ onClose }) => {
   const [projects, setProjects] = useState([]);
@@ -8,10 +9,7 @@ const ProjectListModal = ({ onClose }) => {
   const apiUrl = process.env.REACT_APP_API_URL;
 
   useEffect(() => {
-    fetch(`${apiUrl}/api/projects`, {
-      headers: { Authorization: `Bearer ${token}` },
-    })
-      .then((res) => res.json())
+    fetchAllPages(`${apiUrl}/api/projects`, token)
       .then(setProjects)
       .catch((err) => console.error('Error al obtener proyectos:', err));
   }, [apiUrl, token]);
@@ -0,0 +1,19 @@
+// Recorre todas las páginas de un endpoint paginado por cursor (cabecera X-Next-Cursor)
+export const fetchAllPages = async (url, token) => {
+  const items = [];
+  let cursor = null;
+
+  do {
+    const separator = url.includes('?') ? '&' : '?';
+    const pageUrl = cursor ? `${url}${separator}cursor=${encodeURIComponent(cursor)}` : url;
+    const res = await fetch(pageUrl, {
+      headers: { Authorization: `Bearer ${token}` },
+    });
+    if (!res.ok) throw new Error(`HTTP ${res.status}`);
+
+    items.push(...(await res.json()));
+    cursor = res.headers.get('X-Next-Cursor');
+  } while (cursor);
+
+  return items;
+};